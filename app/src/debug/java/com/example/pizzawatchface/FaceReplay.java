@@ -0,0 +1,298 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Looper;
+
+import com.example.pizzawatchface.core.Box;
+import com.example.pizzawatchface.core.FrameHistogram;
+import com.example.pizzawatchface.core.ManualClock;
+import com.example.pizzawatchface.core.UpdateCoalescer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a {@link ReplayTrace} on an offscreen {@link FaceDriver}, on simulated time, and reports
+ * how often the face would wake up and draw and what the frames cost.
+ * <p>
+ * Time jumps from one thing that can happen to the next: an event of the trace, the redraw timer
+ * the driver armed on its looper, the minute tick of ambient mode or a text change published by
+ * the ingester. The timer and the tick go through the same code of the driver as on the watch,
+ * only the looper is replaced by the simulated clock: the replay fires the timer once the clock
+ * reaches the time it is armed for.
+ * Frames are drawn right after whatever invalidated the face, into a bitmap. The driver runs on a
+ * {@link ManualClock}, so everything that adapts to frame costs behaves the same on every run and
+ * two builds replaying the same trace do the same work; the cost of each frame is measured
+ * separately on the real clock.
+ * <p>
+ * Must be run on a looper thread, the driver is confined to it. Icon themes are left off, they
+ * would finish in the background at an arbitrary point of the replay.
+ */
+public final class FaceReplay {
+    private static final long MINUTE_MS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * What a replay did. Immutable.
+     */
+    public static final class Report {
+        public final long simulatedMillis;
+        public final long interactiveFrames;
+        public final long ambientFrames;
+        // Redraw timers armed by the driver, as on the watch, and how many fired before being
+        // replaced.
+        public final long redrawsScheduled;
+        public final long timerWakeups;
+        // Minute ticks of ambient mode, sent by the system.
+        public final long ambientTicks;
+        // Text changes the ingester published on its own.
+        public final long textWakeups;
+        public final long taps;
+        // Taps that resolved to another slot than the one tapped.
+        public final long tapsMissed;
+        // Complication updates, and the frames the driver drew them in.
+        public final long updates;
+        public final long updateFrames;
+        public final long totalFrameNanos;
+        public final long p50FrameMicros;
+        public final long p99FrameMicros;
+        public final long maxFrameMicros;
+
+        Report(long simulatedMillis, long interactiveFrames, long ambientFrames,
+               long redrawsScheduled, long timerWakeups, long ambientTicks, long textWakeups,
+               long taps, long tapsMissed, long updates, long updateFrames,
+               long totalFrameNanos, FrameHistogram frameCosts) {
+            this.simulatedMillis = simulatedMillis;
+            this.interactiveFrames = interactiveFrames;
+            this.ambientFrames = ambientFrames;
+            this.redrawsScheduled = redrawsScheduled;
+            this.timerWakeups = timerWakeups;
+            this.ambientTicks = ambientTicks;
+            this.textWakeups = textWakeups;
+            this.taps = taps;
+            this.tapsMissed = tapsMissed;
+            this.updates = updates;
+            this.updateFrames = updateFrames;
+            this.totalFrameNanos = totalFrameNanos;
+            p50FrameMicros = frameCosts.getPercentileMicros(50);
+            p99FrameMicros = frameCosts.getPercentileMicros(99);
+            maxFrameMicros = frameCosts.getMaxMicros();
+        }
+
+        public long getWakeups() {
+            return timerWakeups + ambientTicks + textWakeups;
+        }
+
+        // One line of key=value pairs, easy to diff between builds.
+        @Override
+        public String toString() {
+            return "simulatedMinutes=" + simulatedMillis / MINUTE_MS
+                    + " interactiveFrames=" + interactiveFrames
+                    + " ambientFrames=" + ambientFrames
+                    + " wakeups=" + getWakeups()
+                    + " redrawsScheduled=" + redrawsScheduled
+                    + " timerWakeups=" + timerWakeups
+                    + " ambientTicks=" + ambientTicks
+                    + " textWakeups=" + textWakeups
+                    + " taps=" + taps
+                    + " tapsMissed=" + tapsMissed
+                    + " updates=" + updates
+                    + " updateFrames=" + updateFrames
+                    + " frameCostMs=" + TimeUnit.NANOSECONDS.toMillis(totalFrameNanos)
+                    + " p50FrameUs=" + p50FrameMicros
+                    + " p99FrameUs=" + p99FrameMicros
+                    + " maxFrameUs=" + maxFrameMicros;
+        }
+    }
+
+    private final Context context;
+    private final int width;
+    private final int height;
+    private final boolean round;
+    // Minimum update intervals of the driver per mode, -1 for the ones of the resources.
+    private long interactiveUpdateIntervalMillis = -1;
+    private long ambientUpdateIntervalMillis = -1;
+
+    // State of the current run.
+    private ManualClock clock;
+    private boolean frameRequested;
+    private boolean visible;
+    private boolean ambient;
+    private long interactiveFrames;
+    private long ambientFrames;
+    private long timerWakeups;
+    private long ambientTicks;
+    private long textWakeups;
+    private long taps;
+    private long tapsMissed;
+    private long totalFrameNanos;
+    private final FrameHistogram frameCosts = new FrameHistogram();
+
+    private final FaceDriver.Host host = new FaceDriver.Host() {
+        @Override
+        public void invalidate() {
+            frameRequested = true;
+        }
+    };
+
+    /**
+     * @param width  the size of the simulated surface.
+     * @param height the size of the simulated surface.
+     */
+    public FaceReplay(Context context, int width, int height, boolean round) {
+        this.context = context;
+        this.width = width;
+        this.height = height;
+        this.round = round;
+    }
+
+    /**
+     * Replays with another minimum time between the frames drawn for complication updates, see
+     * {@link FaceDriver#setMinUpdateInterval(boolean, long)}.
+     */
+    public void setMinUpdateInterval(boolean ambient, long intervalMillis) {
+        if (ambient) {
+            ambientUpdateIntervalMillis = intervalMillis;
+        } else {
+            interactiveUpdateIntervalMillis = intervalMillis;
+        }
+    }
+
+    /**
+     * Replays the trace from its start to its end time and returns what the face did.
+     */
+    public Report run(ReplayTrace trace) {
+        if (Looper.myLooper() == null) {
+            throw new IllegalStateException("A replay must run on a looper thread");
+        }
+        reset(trace.getStartTime());
+
+        FaceDriver driver = new FaceDriver(context, Looper.myLooper(), clock, host);
+        RedrawTimer redrawTimer = driver.getRedrawTimer();
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        try {
+            if (interactiveUpdateIntervalMillis >= 0) {
+                driver.setMinUpdateInterval(false, interactiveUpdateIntervalMillis);
+            }
+            if (ambientUpdateIntervalMillis >= 0) {
+                driver.setMinUpdateInterval(true, ambientUpdateIntervalMillis);
+            }
+            driver.setRound(round);
+            driver.setSurfaceSize(width, height);
+
+            List<ReplayTrace.Event> events = trace.getEvents();
+            int nextEvent = 0;
+            while (true) {
+                // Whatever happened at this time is ingested before the frame is drawn. The
+                // driver asks for the frame of a new snapshot like on the watch, coalesced.
+                FaceRenderer renderer = driver.getRenderer();
+                renderer.awaitSnapshot();
+                if (frameRequested && visible) {
+                    drawFrame(driver, canvas);
+                }
+
+                long eventTime = nextEvent < events.size()
+                        ? events.get(nextEvent).timeMillis : Long.MAX_VALUE;
+                long tickTime = visible && ambient
+                        ? (clock.currentTimeMillis() / MINUTE_MS + 1) * MINUTE_MS : Long.MAX_VALUE;
+                // The ingester wakes up for text changes even while the screen is off.
+                long textTime = renderer.getNextSnapshotTime();
+                if (textTime <= clock.currentTimeMillis()) {
+                    textTime = Long.MAX_VALUE;
+                }
+                long redrawTime = redrawTimer.getTime();
+                long now = Math.min(Math.min(eventTime, redrawTime), Math.min(tickTime, textTime));
+                if (now > trace.getEndTime()) {
+                    break;
+                }
+                clock.setTime(Math.max(now, clock.currentTimeMillis()));
+
+                while (nextEvent < events.size() && events.get(nextEvent).timeMillis <= now) {
+                    apply(driver, events.get(nextEvent++));
+                }
+                // Unless an event replaced or cancelled it.
+                if (redrawTimer.getTime() <= now) {
+                    timerWakeups++;
+                    redrawTimer.fire();
+                }
+                if (tickTime <= now) {
+                    ambientTicks++;
+                    // The tick is drawn once either way, right away or after the publish.
+                    driver.onTimeTick();
+                    frameRequested = true;
+                }
+                if (textTime <= now) {
+                    textWakeups++;
+                }
+            }
+
+            UpdateCoalescer coalescer = driver.getUpdateCoalescer();
+            return new Report(clock.currentTimeMillis() - trace.getStartTime(), interactiveFrames,
+                    ambientFrames, redrawTimer.getScheduledCount(), timerWakeups, ambientTicks, textWakeups, taps,
+                    tapsMissed, coalescer.getUpdates(), coalescer.getUpdateFrames(),
+                    totalFrameNanos, frameCosts);
+        } finally {
+            driver.release();
+            bitmap.recycle();
+        }
+    }
+
+    private void reset(long startTime) {
+        clock = new ManualClock(startTime);
+        frameRequested = false;
+        visible = false;
+        ambient = false;
+        interactiveFrames = 0;
+        ambientFrames = 0;
+        timerWakeups = 0;
+        ambientTicks = 0;
+        textWakeups = 0;
+        taps = 0;
+        tapsMissed = 0;
+        totalFrameNanos = 0;
+        frameCosts.reset();
+    }
+
+    private void apply(FaceDriver driver, ReplayTrace.Event event) {
+        switch (event.type) {
+            case ReplayTrace.EVENT_DATA:
+                driver.setComplicationData(event.complicationId, event.data);
+                break;
+            case ReplayTrace.EVENT_AMBIENT:
+                ambient = event.on;
+                driver.setAmbientMode(event.on);
+                break;
+            case ReplayTrace.EVENT_VISIBLE:
+                visible = event.on;
+                driver.setVisible(event.on);
+                break;
+            case ReplayTrace.EVENT_TAP:
+                taps++;
+                Box bounds = driver.getRenderer().getGeometry().getSlotBounds(event.complicationId);
+                int tapped = driver.getTappedComplicationId(bounds.left + bounds.width() / 2,
+                        bounds.top + bounds.height() / 2);
+                if (tapped != event.complicationId) {
+                    tapsMissed++;
+                }
+                break;
+        }
+    }
+
+    private void drawFrame(FaceDriver driver, Canvas canvas) {
+        frameRequested = false;
+        // The cost is measured on the real clock, the driver only sees simulated time.
+        long startNanos = System.nanoTime();
+        driver.draw(canvas);
+        long frameNanos = System.nanoTime() - startNanos;
+
+        totalFrameNanos += frameNanos;
+        frameCosts.record(frameNanos);
+        if (ambient) {
+            ambientFrames++;
+        } else {
+            interactiveFrames++;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Build;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.pizzawatchface.core.ManualClock;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.pizzawatchface.Constants.*;
+
+/**
+ * Renders every {@link GoldenScenario} on an offscreen {@link FaceDriver} and compares the result
+ * with its golden image, and the render time with its baseline. Debug builds only.
+ * <p>
+ * Goldens and baselines ship in the debug assets, under {@code golden/<device>/}: one PNG per
+ * scenario and a {@code timing.properties}. They are kept per device, since text is drawn with the
+ * system fonts and render times only compare on the same hardware: an emulator image, or
+ * {@code robolectric} for the {@code GoldenImageTest} on the native graphics of Robolectric. A
+ * recording run writes both to the output dir, by default {@code golden/<device>/} in the external
+ * files dir of the app, from where they are pulled into the assets:
+ * <pre>
+ * adb pull /sdcard/Android/data/com.example.pizzawatchface/files/golden app/src/debug/assets/
+ * </pre>
+ * A check writes the actual image of every scenario that doesn't match there as well.
+ * <p>
+ * Every scenario is rendered at a fixed time on a {@link ManualClock}. The cold time is the
+ * first frame, which renders every layer, the warm time the median of the frames after it.
+ * Must be run on a looper thread, the drivers are confined to it.
+ */
+public final class GoldenCheck {
+    /**
+     * What a run checks or records, see {@link #run(boolean, int)}.
+     */
+    public static final int CHECK_IMAGES = 1;
+    public static final int CHECK_TIMES = 1 << 1;
+    public static final int CHECK_ALL = CHECK_IMAGES | CHECK_TIMES;
+
+    private static final String TAG = "GoldenCheck";
+    private static final String ASSET_DIR = "golden";
+    private static final String TIMING_FILE = "timing.properties";
+    // 2023-11-15 10:08 UTC, any fixed time will do.
+    private static final long RENDER_TIME = 1700042880000L;
+    private static final int WARM_FRAMES = 9;
+
+    // A pixel matches if no channel is off by more than this, to allow for driver dithering.
+    private static final int CHANNEL_TOLERANCE = 8;
+    // An image matches if at most this fraction of its pixels don't.
+    private static final float MISMATCH_TOLERANCE = 0.002f;
+    // A time regresses if it is this much over its baseline, relative and absolute.
+    private static final float TIMING_TOLERANCE = 0.25f;
+    private static final long TIMING_SLACK_US = 500;
+
+    /**
+     * The outcome of a run. Immutable.
+     */
+    public static final class Result {
+        public final int scenarios;
+        public final List<String> failures;
+
+        Result(int scenarios, List<String> failures) {
+            this.scenarios = scenarios;
+            this.failures = Collections.unmodifiableList(new ArrayList<>(failures));
+        }
+
+        public boolean passed() {
+            return failures.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return (passed() ? "PASSED " : "FAILED ") + scenarios + " scenarios, "
+                    + failures.size() + " failures";
+        }
+    }
+
+    private static final FaceDriver.Host NO_HOST = new FaceDriver.Host() {
+        @Override
+        public void invalidate() {
+        }
+    };
+
+    private final Context context;
+    private final File outputDir;
+    private final long[] warmMicros = new long[WARM_FRAMES];
+
+    public GoldenCheck(Context context) {
+        this(context, new File(context.getExternalFilesDir(ASSET_DIR), getDeviceDir()));
+    }
+
+    /**
+     * @param outputDir where recordings and the images that don't match are written.
+     */
+    public GoldenCheck(Context context, File outputDir) {
+        this.context = context;
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Renders every scenario. With {@code record} the images and times become the new goldens
+     * and baselines, in the output dir; otherwise they are checked against the assets.
+     */
+    public Result run(boolean record) throws IOException {
+        return run(record, CHECK_ALL);
+    }
+
+    /**
+     * Like {@link #run(boolean)}, for the images or the times only: the images come out the same
+     * on every run, the times depend on the load of the machine.
+     *
+     * @param checks {@link #CHECK_IMAGES}, {@link #CHECK_TIMES} or both.
+     */
+    public Result run(boolean record, int checks) throws IOException {
+        boolean images = (checks & CHECK_IMAGES) != 0;
+        boolean times = (checks & CHECK_TIMES) != 0;
+        if (Looper.myLooper() == null) {
+            throw new IllegalStateException("A golden check must run on a looper thread");
+        }
+        if (outputDir == null || (!outputDir.isDirectory() && !outputDir.mkdirs())) {
+            throw new IOException("No output dir for the golden images");
+        }
+
+        List<GoldenScenario> scenarios = GoldenScenario.all();
+        Properties baselines = record || !times ? new Properties() : loadBaselines();
+        Properties timings = new Properties();
+        List<String> failures = new ArrayList<>();
+
+        // A throwaway frame, so the first scenario doesn't pay for loading the classes.
+        render(scenarios.get(0), new long[2]).recycle();
+
+        for (GoldenScenario scenario : scenarios) {
+            long[] renderTimes = new long[2];
+            Bitmap actual = render(scenario, renderTimes);
+            timings.setProperty(scenario.name + ".cold", Long.toString(renderTimes[0]));
+            timings.setProperty(scenario.name + ".warm", Long.toString(renderTimes[1]));
+            try {
+                if (record && images) {
+                    writePng(actual, new File(outputDir, scenario.name + ".png"));
+                } else if (images) {
+                    checkImage(scenario, actual, failures);
+                }
+                if (!record && times) {
+                    checkTime(scenario.name + ".cold", renderTimes[0], baselines, failures);
+                    checkTime(scenario.name + ".warm", renderTimes[1], baselines, failures);
+                }
+            } finally {
+                actual.recycle();
+            }
+        }
+
+        if (record && times) {
+            OutputStream out = new FileOutputStream(new File(outputDir, TIMING_FILE));
+            try {
+                timings.store(out, "Render times in microseconds on " + Build.MODEL);
+            } finally {
+                out.close();
+            }
+        }
+        for (String failure : failures) {
+            Log.w(TAG, failure);
+        }
+        return new Result(scenarios.size(), failures);
+    }
+
+    /**
+     * Returns whether golden images were recorded for this device.
+     */
+    public boolean hasGoldens() throws IOException {
+        String[] files = context.getAssets().list(ASSET_DIR + "/" + getDeviceDir());
+        if (files != null) {
+            for (String file : files) {
+                if (file.endsWith(".png")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Renders the scenario on a new driver. times receives the cold and the warm frame time,
+     * in microseconds.
+     */
+    private Bitmap render(GoldenScenario scenario, long[] times) {
+        ManualClock clock = new ManualClock(RENDER_TIME);
+        FaceDriver driver = new FaceDriver(context, Looper.myLooper(), clock, NO_HOST);
+        try {
+            FaceRenderer renderer = driver.getRenderer();
+            driver.setRound(scenario.round);
+            driver.setSurfaceSize(scenario.width, scenario.height);
+            renderer.setDisplayProperties(scenario.lowBitAmbient, false);
+            renderer.setHollowMode(scenario.hollow);
+            renderer.setShadowQuality(ArcComplication.SHADOW_BAKED);
+            for (int id = 0; id < COMPLICATION_IDS.length; id++) {
+                driver.setComplicationData(id, scenario.getData(id));
+            }
+            driver.setVisible(true);
+            driver.setAmbientMode(scenario.ambient);
+            renderer.awaitSnapshot();
+
+            Bitmap bitmap = Bitmap.createBitmap(scenario.width, scenario.height,
+                    Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            long startNanos = System.nanoTime();
+            driver.draw(canvas);
+            times[0] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+
+            for (int i = 0; i < WARM_FRAMES; i++) {
+                clock.advance(TimeUnit.SECONDS.toMillis(1));
+                startNanos = System.nanoTime();
+                driver.draw(canvas);
+                warmMicros[i] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            }
+            Arrays.sort(warmMicros);
+            times[1] = warmMicros[WARM_FRAMES / 2];
+            return bitmap;
+        } finally {
+            driver.release();
+        }
+    }
+
+    private void checkImage(GoldenScenario scenario, Bitmap actual, List<String> failures)
+            throws IOException {
+        Bitmap golden = loadGolden(scenario.name);
+        if (golden == null) {
+            failures.add(scenario.name + ": no golden image for " + Build.MODEL);
+            return;
+        }
+        try {
+            if (golden.getWidth() != actual.getWidth()
+                    || golden.getHeight() != actual.getHeight()) {
+                failures.add(scenario.name + ": golden is " + golden.getWidth() + "x"
+                        + golden.getHeight());
+                writePng(actual, new File(outputDir, scenario.name + ".actual.png"));
+                return;
+            }
+            int mismatched = countMismatchedPixels(golden, actual);
+            int allowed = (int) (actual.getWidth() * actual.getHeight() * MISMATCH_TOLERANCE);
+            if (mismatched > allowed) {
+                failures.add(scenario.name + ": " + mismatched + " pixels differ, " + allowed
+                        + " allowed");
+                writePng(actual, new File(outputDir, scenario.name + ".actual.png"));
+            }
+        } finally {
+            golden.recycle();
+        }
+    }
+
+    private static int countMismatchedPixels(Bitmap golden, Bitmap actual) {
+        int width = actual.getWidth();
+        int[] goldenRow = new int[width];
+        int[] actualRow = new int[width];
+        int mismatched = 0;
+        for (int y = 0; y < actual.getHeight(); y++) {
+            golden.getPixels(goldenRow, 0, width, 0, y, width, 1);
+            actual.getPixels(actualRow, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                int a = goldenRow[x];
+                int b = actualRow[x];
+                if (Math.abs(Color.alpha(a) - Color.alpha(b)) > CHANNEL_TOLERANCE
+                        || Math.abs(Color.red(a) - Color.red(b)) > CHANNEL_TOLERANCE
+                        || Math.abs(Color.green(a) - Color.green(b)) > CHANNEL_TOLERANCE
+                        || Math.abs(Color.blue(a) - Color.blue(b)) > CHANNEL_TOLERANCE) {
+                    mismatched++;
+                }
+            }
+        }
+        return mismatched;
+    }
+
+    private static void checkTime(String key, long micros, Properties baselines,
+                                  List<String> failures) {
+        String baseline = baselines.getProperty(key);
+        if (baseline == null) {
+            failures.add(key + ": no baseline for " + Build.MODEL);
+            return;
+        }
+        long baselineMicros = Long.parseLong(baseline);
+        long limit = (long) (baselineMicros * (1 + TIMING_TOLERANCE)) + TIMING_SLACK_US;
+        if (micros > limit) {
+            failures.add(key + ": " + micros + " us, baseline " + baselineMicros + " us");
+        }
+    }
+
+    private Bitmap loadGolden(String name) throws IOException {
+        InputStream in;
+        try {
+            in = context.getAssets().open(getAssetPath(name + ".png"),
+                    AssetManager.ACCESS_STREAMING);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        try {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            // Compared as is, not scaled to the density of the device.
+            options.inScaled = false;
+            options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+            return BitmapFactory.decodeStream(in, null, options);
+        } finally {
+            in.close();
+        }
+    }
+
+    private Properties loadBaselines() throws IOException {
+        Properties baselines = new Properties();
+        InputStream in;
+        try {
+            in = context.getAssets().open(getAssetPath(TIMING_FILE));
+        } catch (FileNotFoundException e) {
+            return baselines;
+        }
+        try {
+            baselines.load(in);
+        } finally {
+            in.close();
+        }
+        return baselines;
+    }
+
+    private static String getAssetPath(String fileName) {
+        return ASSET_DIR + "/" + getDeviceDir() + "/" + fileName;
+    }
+
+    private static String getDeviceDir() {
+        return Build.MODEL.replaceAll("[^A-Za-z0-9]", "_");
+    }
+
+    private static void writePng(Bitmap bitmap, File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } finally {
+            out.close();
+        }
+    }
+}
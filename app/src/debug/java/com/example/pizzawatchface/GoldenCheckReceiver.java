@@ -0,0 +1,57 @@
+package com.example.pizzawatchface;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import java.io.IOException;
+
+/**
+ * Runs the {@link GoldenCheck}, debug builds only. The result code of the broadcast is
+ * {@link #RESULT_PASSED} or {@link #RESULT_FAILED} and the data a summary, the failures are
+ * logged:
+ * <pre>
+ * adb shell am broadcast -a com.example.pizzawatchface.GOLDEN_CHECK \
+ *         -n com.example.pizzawatchface/.GoldenCheckReceiver [--ez record true]
+ * </pre>
+ */
+public class GoldenCheckReceiver extends BroadcastReceiver {
+    public static final int RESULT_PASSED = 0;
+    public static final int RESULT_FAILED = 1;
+
+    private static final String TAG = "GoldenCheck";
+    private static final String EXTRA_RECORD = "record";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        final Context appContext = context.getApplicationContext();
+        final boolean record = intent.getBooleanExtra(EXTRA_RECORD, false);
+        final PendingResult result = goAsync();
+
+        final HandlerThread thread = new HandlerThread("GoldenCheck");
+        thread.start();
+        new Handler(thread.getLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                int code = RESULT_FAILED;
+                String summary;
+                try {
+                    GoldenCheck.Result checkResult = new GoldenCheck(appContext).run(record);
+                    code = record || checkResult.passed() ? RESULT_PASSED : RESULT_FAILED;
+                    summary = record ? "RECORDED " + checkResult.scenarios + " scenarios"
+                            : checkResult.toString();
+                    Log.i(TAG, summary);
+                } catch (IOException | RuntimeException e) {
+                    summary = "FAILED " + e;
+                    Log.e(TAG, "Golden check failed", e);
+                }
+                result.setResult(code, summary, null);
+                result.finish();
+                thread.quitSafely();
+            }
+        });
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.drawable.Icon;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationText;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.pizzawatchface.Constants.*;
+
+/**
+ * A face rendered by {@link GoldenCheck}: a surface, a render mode and the data of every slot.
+ * Immutable.
+ */
+public final class GoldenScenario {
+    // Render modes of the matrix.
+    public static final int MODE_INTERACTIVE = 0;
+    public static final int MODE_AMBIENT = 1;
+    public static final int MODE_LOW_BIT = 2;
+    public static final int MODE_HOLLOW = 3;
+    private static final String[] MODE_NAMES = {"interactive", "ambient", "lowbit", "hollow"};
+
+    // Surfaces of the matrix: small and large round watches, and a square one.
+    private static final int[][] SURFACES = {{390, 1}, {454, 1}, {320, 0}};
+
+    private static final int ICON_SIZE = 48;
+
+    public final String name;
+    public final int width;
+    public final int height;
+    public final boolean round;
+    public final boolean ambient;
+    public final boolean lowBitAmbient;
+    public final boolean hollow;
+    private final ComplicationData[] data;
+
+    private GoldenScenario(String name, int size, boolean round, int mode,
+                           ComplicationData[] data) {
+        this.name = name;
+        width = size;
+        height = size;
+        this.round = round;
+        ambient = mode == MODE_AMBIENT || mode == MODE_LOW_BIT;
+        lowBitAmbient = mode == MODE_LOW_BIT;
+        hollow = mode == MODE_HOLLOW;
+        this.data = data;
+    }
+
+    /**
+     * Returns the data of the slot, null for an empty slot.
+     */
+    public ComplicationData getData(int complicationId) {
+        return data[complicationId];
+    }
+
+    /**
+     * Builds every scenario: each complication type the face supports, shown in every slot that
+     * supports it, in every render mode on every surface. Names are unique and safe as file
+     * names.
+     */
+    public static List<GoldenScenario> all() {
+        Icon icon = createIcon();
+        List<GoldenScenario> scenarios = new ArrayList<>();
+        for (int type : getSupportedTypes()) {
+            ComplicationData[] data = new ComplicationData[COMPLICATION_IDS.length];
+            for (int id = 0; id < COMPLICATION_IDS.length; id++) {
+                if (supports(id, type)) {
+                    data[id] = createData(type, icon);
+                }
+            }
+            for (int[] surface : SURFACES) {
+                for (int mode = 0; mode < MODE_NAMES.length; mode++) {
+                    boolean round = surface[1] == 1;
+                    String name = getTypeName(type) + "_" + surface[0]
+                            + (round ? "_round_" : "_square_") + MODE_NAMES[mode];
+                    scenarios.add(new GoldenScenario(name, surface[0], round, mode, data));
+                }
+            }
+        }
+        return Collections.unmodifiableList(scenarios);
+    }
+
+    // The types of NORMAL_COMPLICATION_TYPES and LARGE_COMPLICATION_TYPES, each once.
+    private static List<Integer> getSupportedTypes() {
+        List<Integer> types = new ArrayList<>();
+        for (int type : LARGE_COMPLICATION_TYPES) {
+            types.add(type);
+        }
+        for (int type : NORMAL_COMPLICATION_TYPES) {
+            if (!types.contains(type)) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    private static String getTypeName(int type) {
+        switch (type) {
+            case ComplicationData.TYPE_RANGED_VALUE:
+                return "ranged";
+            case ComplicationData.TYPE_ICON:
+                return "icon";
+            case ComplicationData.TYPE_SHORT_TEXT:
+                return "shorttext";
+            case ComplicationData.TYPE_SMALL_IMAGE:
+                return "smallimage";
+            case ComplicationData.TYPE_LARGE_IMAGE:
+                return "largeimage";
+            case ComplicationData.TYPE_LONG_TEXT:
+                return "longtext";
+            default:
+                return "type" + type;
+        }
+    }
+
+    private static boolean supports(int complicationId, int type) {
+        for (int supported : PizzaWatchFaceService.getSupportedComplicationTypes(
+                ComplicationLocation.values()[complicationId])) {
+            if (supported == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ComplicationData createData(int type, Icon icon) {
+        ComplicationData.Builder builder = new ComplicationData.Builder(type);
+        switch (type) {
+            case ComplicationData.TYPE_RANGED_VALUE:
+                builder.setValue(60).setMinValue(0).setMaxValue(100)
+                        .setShortText(ComplicationText.plainText("60"))
+                        .setIcon(icon);
+                break;
+            case ComplicationData.TYPE_ICON:
+                builder.setIcon(icon);
+                break;
+            case ComplicationData.TYPE_SHORT_TEXT:
+                builder.setShortText(ComplicationText.plainText("12K"))
+                        .setShortTitle(ComplicationText.plainText("Steps"));
+                break;
+            case ComplicationData.TYPE_SMALL_IMAGE:
+                builder.setSmallImage(icon)
+                        .setImageStyle(ComplicationData.IMAGE_STYLE_ICON);
+                break;
+            case ComplicationData.TYPE_LARGE_IMAGE:
+                builder.setLargeImage(icon);
+                break;
+            case ComplicationData.TYPE_LONG_TEXT:
+                builder.setLongText(ComplicationText.plainText("Standup in room 4"))
+                        .setLongTitle(ComplicationText.plainText("Calendar"));
+                break;
+        }
+        return builder.build();
+    }
+
+    // An icon drawn here rather than loaded, so it is the same on every device.
+    private static Icon createIcon() {
+        Bitmap bitmap = Bitmap.createBitmap(ICON_SIZE, ICON_SIZE, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint();
+        paint.setColor(Color.WHITE);
+        canvas.drawCircle(ICON_SIZE / 2f, ICON_SIZE / 2f, ICON_SIZE / 3f, paint);
+        paint.setColor(Color.BLACK);
+        canvas.drawRect(ICON_SIZE * 3 / 8f, ICON_SIZE * 3 / 8f, ICON_SIZE * 5 / 8f,
+                ICON_SIZE * 5 / 8f, paint);
+        return Icon.createWithBitmap(bitmap);
+    }
+}
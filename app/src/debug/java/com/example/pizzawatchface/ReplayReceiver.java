@@ -0,0 +1,58 @@
+package com.example.pizzawatchface;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+/**
+ * Starts a {@link FaceReplay} of {@link ReplayTrace#simulatedDay()} and logs its report, debug
+ * builds only. The surface is round and 454 pixels wide, and complication updates are coalesced
+ * with the intervals of the resources, unless the extras say otherwise:
+ * <pre>
+ * adb shell am broadcast -a com.example.pizzawatchface.REPLAY \
+ *         -n com.example.pizzawatchface/.ReplayReceiver --ei size 390 --ez round false \
+ *         --el interactiveUpdateMs 100 --el ambientUpdateMs 5000
+ * </pre>
+ * The report is also the result data of the broadcast.
+ */
+public class ReplayReceiver extends BroadcastReceiver {
+    private static final String TAG = "FaceReplay";
+    private static final String EXTRA_SIZE = "size";
+    private static final String EXTRA_ROUND = "round";
+    private static final String EXTRA_INTERACTIVE_UPDATE_MS = "interactiveUpdateMs";
+    private static final String EXTRA_AMBIENT_UPDATE_MS = "ambientUpdateMs";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        final Context appContext = context.getApplicationContext();
+        final int size = intent.getIntExtra(EXTRA_SIZE, 454);
+        final boolean round = intent.getBooleanExtra(EXTRA_ROUND, true);
+        final long interactiveUpdateMillis = intent.getLongExtra(EXTRA_INTERACTIVE_UPDATE_MS, -1);
+        final long ambientUpdateMillis = intent.getLongExtra(EXTRA_AMBIENT_UPDATE_MS, -1);
+        final PendingResult result = goAsync();
+
+        final HandlerThread thread = new HandlerThread("FaceReplay");
+        thread.start();
+        new Handler(thread.getLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    FaceReplay replay = new FaceReplay(appContext, size, size, round);
+                    replay.setMinUpdateInterval(false, interactiveUpdateMillis);
+                    replay.setMinUpdateInterval(true, ambientUpdateMillis);
+                    FaceReplay.Report report = replay.run(ReplayTrace.simulatedDay());
+                    Log.i(TAG, report.toString());
+                    result.setResultData(report.toString());
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Replay failed", e);
+                } finally {
+                    result.finish();
+                    thread.quitSafely();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.pizzawatchface;
+
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationText;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.pizzawatchface.Constants.*;
+
+/**
+ * A timed stream of what the system tells a watch face: complication data updates, ambient and
+ * visibility transitions and taps, replayed on a {@link FaceDriver} by {@link FaceReplay}.
+ * <p>
+ * Events are ordered by time, events at the same time keep the order they were added in.
+ */
+public final class ReplayTrace {
+    public static final int EVENT_DATA = 0;
+    public static final int EVENT_AMBIENT = 1;
+    public static final int EVENT_VISIBLE = 2;
+    // A tap on the center of a slot, resolved like a tap on the screen.
+    public static final int EVENT_TAP = 3;
+
+    private static final long MINUTE_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+    // 2023-11-15 00:00 UTC, fixed so every run of a trace sees the same times.
+    private static final long DAY_START = 1700006400000L;
+
+    /**
+     * One event. Immutable.
+     */
+    public static final class Event {
+        public final int type;
+        public final long timeMillis;
+        // The slot of data and tap events.
+        public final int complicationId;
+        public final ComplicationData data;
+        // The state of ambient and visibility events.
+        public final boolean on;
+
+        Event(int type, long timeMillis, int complicationId, ComplicationData data, boolean on) {
+            this.type = type;
+            this.timeMillis = timeMillis;
+            this.complicationId = complicationId;
+            this.data = data;
+            this.on = on;
+        }
+    }
+
+    public static final class Builder {
+        private final long startTime;
+        private final long endTime;
+        private final List<Event> events = new ArrayList<>();
+
+        /**
+         * @param startTime where the replay clock starts.
+         * @param endTime where the replay stops, timers due later don't fire.
+         */
+        public Builder(long startTime, long endTime) {
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        public Builder data(long timeMillis, int complicationId, ComplicationData data) {
+            events.add(new Event(EVENT_DATA, timeMillis, complicationId, data, false));
+            return this;
+        }
+
+        public Builder ambient(long timeMillis, boolean ambient) {
+            events.add(new Event(EVENT_AMBIENT, timeMillis, -1, null, ambient));
+            return this;
+        }
+
+        public Builder visible(long timeMillis, boolean visible) {
+            events.add(new Event(EVENT_VISIBLE, timeMillis, -1, null, visible));
+            return this;
+        }
+
+        public Builder tap(long timeMillis, int complicationId) {
+            events.add(new Event(EVENT_TAP, timeMillis, complicationId, null, false));
+            return this;
+        }
+
+        public ReplayTrace build() {
+            List<Event> sorted = new ArrayList<>(events);
+            // A stable sort, so events at the same time keep their order.
+            Collections.sort(sorted, new Comparator<Event>() {
+                @Override
+                public int compare(Event a, Event b) {
+                    return Long.compare(a.timeMillis, b.timeMillis);
+                }
+            });
+            return new ReplayTrace(startTime, endTime, Collections.unmodifiableList(sorted));
+        }
+    }
+
+    private final long startTime;
+    private final long endTime;
+    private final List<Event> events;
+
+    private ReplayTrace(long startTime, long endTime, List<Event> events) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.events = events;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    /**
+     * A day on the wrist, the same on every call: the screen is off at night, during the day
+     * the wrist is raised a few times an hour for a few seconds and sometimes a complication is
+     * tapped. The arcs show steps, battery, heart rate and a countdown to the next meeting, the
+     * center the date and the right slot the temperature.
+     */
+    public static ReplayTrace simulatedDay() {
+        Builder builder = new Builder(DAY_START, DAY_START + TimeUnit.DAYS.toMillis(1));
+        Random random = new Random(42);
+
+        long wakeUp = DAY_START + 7 * HOUR_MS;
+        long bedTime = DAY_START + 23 * HOUR_MS;
+
+        builder.visible(DAY_START, false);
+        builder.ambient(DAY_START, true);
+        builder.data(DAY_START, CENTER_COMPLICATION_ID, shortText("15 NOV"));
+        for (long time = DAY_START; time < bedTime + HOUR_MS; time += HOUR_MS) {
+            builder.data(time, RIGHT_COMPLICATION_ID, shortText((8 + random.nextInt(10)) + "°"));
+        }
+
+        builder.visible(wakeUp, true);
+        int steps = 0;
+        float battery = 100;
+        for (long time = wakeUp; time < bedTime; time += 5 * MINUTE_MS) {
+            steps += random.nextInt(120);
+            battery -= 0.5f;
+            builder.data(time, TOP_RIGHT_RANGED_COMPLICATION_ID,
+                    rangedValue(Math.min(steps, 10000), 0, 10000, Integer.toString(steps)));
+            if ((time - wakeUp) % (10 * MINUTE_MS) == 0) {
+                builder.data(time, BOTTOM_RIGHT_RANGED_COMPLICATION_ID,
+                        rangedValue(battery, 0, 100, (int) battery + "%"));
+            }
+            int heartRate = 60 + random.nextInt(60);
+            builder.data(time, BOTTOM_LEFT_RANGED_COMPLICATION_ID,
+                    rangedValue(heartRate, 40, 200, Integer.toString(heartRate)));
+        }
+        for (long meeting = DAY_START + 9 * HOUR_MS; meeting < bedTime; meeting += 2 * HOUR_MS) {
+            builder.data(meeting - 2 * HOUR_MS, TOP_LEFT_RANGED_COMPLICATION_ID,
+                    countdown(meeting));
+        }
+
+        // Wrist raises, each a few seconds interactive and sometimes a tap.
+        long time = wakeUp + random.nextInt((int) (10 * MINUTE_MS));
+        while (time < bedTime) {
+            long interactive = TimeUnit.SECONDS.toMillis(3 + random.nextInt(10));
+            builder.ambient(time, false);
+            if (random.nextInt(8) == 0) {
+                builder.tap(time + interactive / 2,
+                        RANGED_ID_OFFSET + random.nextInt(RANGE_COMPLICATION_COUNT));
+            }
+            builder.ambient(time + interactive, true);
+            time += interactive + 5 * MINUTE_MS + random.nextInt((int) (20 * MINUTE_MS));
+        }
+        builder.visible(bedTime, false);
+        return builder.build();
+    }
+
+    private static ComplicationData shortText(String text) {
+        return new ComplicationData.Builder(ComplicationData.TYPE_SHORT_TEXT)
+                .setShortText(ComplicationText.plainText(text))
+                .build();
+    }
+
+    private static ComplicationData rangedValue(float value, float min, float max, String text) {
+        return new ComplicationData.Builder(ComplicationData.TYPE_RANGED_VALUE)
+                .setValue(value)
+                .setMinValue(min)
+                .setMaxValue(max)
+                .setShortText(ComplicationText.plainText(text))
+                .build();
+    }
+
+    // Text that counts down to the time and changes every minute.
+    private static ComplicationData countdown(long timeMillis) {
+        return new ComplicationData.Builder(ComplicationData.TYPE_SHORT_TEXT)
+                .setShortText(new ComplicationText.TimeDifferenceBuilder()
+                        .setReferencePeriodStart(timeMillis)
+                        .setReferencePeriodEnd(timeMillis)
+                        .setStyle(ComplicationText.DIFFERENCE_STYLE_SHORT_SINGLE_UNIT)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * Keeps the last ambient frame in an offscreen bitmap, so a minute tick in ambient mode only
+ * redraws the regions whose content changed and blits the rest.
+ * <p>
+ * Callers mark regions dirty with {@link #invalidate(Rect)} when the content drawn there changes
+ * (a complication text or value) and drop the whole frame with {@link #invalidate()} when
+ * everything moves or changes color (surface, render mode or display properties).
+ * <p>
+ * For burn-in protection the frame can be blitted at an offset, moving the whole composition
+ * without drawing any of it again.
+ */
+public class AmbientFrameCache {
+
+    /**
+     * Draws the ambient frame. Only what intersects {@code dirty} has to be drawn, the canvas is
+     * clipped to it; {@code dirty} is null when the whole frame is drawn.
+     */
+    public interface FrameRenderer {
+        void drawFrame(Canvas canvas, Rect dirty);
+    }
+
+    private final Canvas frameCanvas = new Canvas();
+    private final Rect dirty = new Rect();
+    private final Paint uncoveredPaint = new Paint();
+    private Bitmap frame;
+    private boolean valid;
+
+    public AmbientFrameCache() {
+        uncoveredPaint.setColor(Color.BLACK);
+    }
+
+    /**
+     * Drops the cached frame, the next {@link #draw} renders it completely.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Marks a region of the cached frame for redrawing on the next {@link #draw}.
+     */
+    public void invalidate(Rect region) {
+        dirty.union(region);
+    }
+
+    /**
+     * Brings the cached frame up to date and blits it, moved by the given offset. The strips the
+     * moved frame leaves uncovered are filled with black.
+     */
+    public void draw(Canvas canvas, int width, int height, int offsetX, int offsetY,
+                     FrameRenderer renderer) {
+        if (frame == null || frame.getWidth() != width || frame.getHeight() != height) {
+            if (frame != null) {
+                frame.recycle();
+            }
+            // Ambient frames are opaque and mostly gray, half the memory of ARGB_8888 is enough.
+            frame = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+            valid = false;
+        }
+
+        frameCanvas.setBitmap(frame);
+        if (!valid) {
+            renderer.drawFrame(frameCanvas, null);
+            valid = true;
+        } else if (!dirty.isEmpty()) {
+            frameCanvas.save();
+            frameCanvas.clipRect(dirty);
+            renderer.drawFrame(frameCanvas, dirty);
+            frameCanvas.restore();
+        }
+        frameCanvas.setBitmap(null);
+        dirty.setEmpty();
+
+        canvas.drawBitmap(frame, offsetX, offsetY, null);
+        if (offsetX > 0) {
+            canvas.drawRect(0, 0, offsetX, height, uncoveredPaint);
+        } else if (offsetX < 0) {
+            canvas.drawRect(width + offsetX, 0, width, height, uncoveredPaint);
+        }
+        if (offsetY > 0) {
+            canvas.drawRect(0, 0, width, offsetY, uncoveredPaint);
+        } else if (offsetY < 0) {
+            canvas.drawRect(0, height + offsetY, width, height, uncoveredPaint);
+        }
+    }
+
+    /**
+     * Releases the bitmap, call when leaving ambient mode for good or when the engine is destroyed.
+     */
+    public void clear() {
+        if (frame != null) {
+            frame.recycle();
+            frame = null;
+        }
+        valid = false;
+        dirty.setEmpty();
+    }
+}
@@ -1,155 +1,302 @@
 package com.example.pizzawatchface;
 
-import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.RectF;
-import android.graphics.drawable.Drawable;
-import android.graphics.drawable.Icon;
 import android.support.wearable.complications.ComplicationData;
-import android.support.wearable.complications.ComplicationText;
+
+import com.example.pizzawatchface.core.Box;
+import com.example.pizzawatchface.core.FaceGeometry;
+import com.example.pizzawatchface.core.SlotIds;
 
 public class ArcComplication {
-    private final int primaryColor;
-    private final float width;
-    private final int secondaryColor;
-    private final Context context;
-    private final RectF complicationBounds;
-    private final Rect iconBounds;
-    private final Paint primaryPaint;
-    private final Paint secondaryPaint;
-    private final Paint textPaint;
-    private final Path textPath;
-    private final int startAngle;
-    private final int sweepAngle;
-
-
-    public ArcComplication(Context context, RectF complicationBounds, Rect iconBounds, float width,
-                           int primaryColor, int secondaryColor, int startAngle, int sweepAngle) {
-        this.context = context;
-        this.complicationBounds = complicationBounds;
-        this.iconBounds = iconBounds;
+    // What ArcComplication#drawTrack draws behind the complication, see getTrackType.
+    public static final int TRACK_NONE = 0;
+    public static final int TRACK_RANGED = 1;
+    public static final int TRACK_TEXT = 2;
+
+    // How the drop shadows of the arcs and their text are drawn, a user setting.
+    public static final int SHADOW_NONE = 0;
+    // Blurred once per change into a BakedShadow, composited on every frame.
+    public static final int SHADOW_BAKED = 1;
+    // Blurred on every draw call by the shadow layer of the paints.
+    public static final int SHADOW_LIVE = 2;
+    // Until the user picks one. Everything that draws arcs starts from it, so the face doesn't
+    // switch once the settings arrive.
+    public static final int DEFAULT_SHADOW_QUALITY = SHADOW_BAKED;
+
+    private static final float SHADOW_RADIUS = 2;
+
+    private int primaryColor;
+    private int secondaryColor;
+    private final RectF complicationBounds = new RectF();
+    private final Rect iconBounds = new Rect();
+    // Everything draw() can touch: the stroke, its shadow, the text along the arc and the icon.
+    private final Rect drawBounds = new Rect();
+    private float width;
+    private float startAngle;
+    private float sweepAngle;
+
+    // The paints of every render mode, and those of the current one.
+    private ArcPaints[] paintSet;
+    private ArcPaints paints;
+    private boolean ambientMode;
+    private boolean hollow;
+    private boolean lowBitAmbient;
+    // Render quality, lowered by the QualityGovernor on devices that fall behind.
+    private boolean shadows = true;
+    private boolean antiAlias = true;
+    private int shadowQuality = DEFAULT_SHADOW_QUALITY;
+
+    // The baked shadow of the progress or the text, one for interactive and one for ambient
+    // mode so the wrist going down and up again doesn't bake them again.
+    private final BakedShadow[] bakedShadows = {
+            new BakedShadow(SHADOW_RADIUS, Color.BLACK), new BakedShadow(SHADOW_RADIUS, Color.BLACK)};
+    // What each shadow was baked for.
+    private final SlotSnapshot[] bakedSlots = new SlotSnapshot[2];
+    private final ArcPaints[] bakedPaints = new ArcPaints[2];
+    private final boolean[] bakedLaidOut = new boolean[2];
+
+    /**
+     * Creates an arc without geometry, {@link #setGeometry} must be called before drawing it.
+     */
+    public ArcComplication(int primaryColor, int secondaryColor) {
         this.primaryColor = primaryColor;
         this.secondaryColor = secondaryColor;
-        this.startAngle = startAngle;
-        this.sweepAngle = sweepAngle;
-        this.width = width;
+        rebuildPaints();
+    }
 
-        primaryPaint = createPaint(primaryColor);
-        secondaryPaint = createPaint(secondaryColor);
-        textPaint = createPaint(secondaryColor);
-        textPaint.setStrokeWidth(1);
-        textPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+    public int getPrimaryColor() {
+        return primaryColor;
+    }
 
-        textPath = new Path();
-        textPath.addArc(complicationBounds, startAngle, sweepAngle);
+    public int getSecondaryColor() {
+        return secondaryColor;
     }
 
-    private Paint createPaint(int color) {
-        Paint paint = new Paint();
-        paint.setColor(color);
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setAntiAlias(true);
-        paint.setStrokeCap(Paint.Cap.ROUND);
-        paint.setStrokeWidth(width);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTextSize(14);
-        paint.setShadowLayer(2, 0,0, Color.BLACK);
+    /**
+     * Changes the colors of the arc, as with the icon theme, see {@link PaletteThemeCache}. The
+     * ambient colors stay gray.
+     */
+    public void setColors(int primaryColor, int secondaryColor) {
+        this.primaryColor = primaryColor;
+        this.secondaryColor = secondaryColor;
+        rebuildPaints();
+    }
 
-        return paint;
+    /**
+     * Returns a layout that measures text like this arc draws it. The layout has its own paint,
+     * so it can be used on another thread.
+     */
+    public ArcTextLayout newTextLayout() {
+        return new ArcTextLayout(paints.text);
     }
 
-    public void draw(Canvas canvas, ComplicationData complicationData) {
-        if(complicationData == null)
-            return;
+    /**
+     * Moves the arc to a new surface layout. The ambient and hollow state are kept, the paints
+     * are built again for the new stroke width.
+     */
+    public void setGeometry(FaceGeometry geometry, int rangedIndex) {
+        complicationBounds.set(geometry.arcLeft, geometry.arcTop, geometry.arcRight,
+                geometry.arcBottom);
+        Box icon = geometry.getSlotBounds(SlotIds.RANGED_OFFSET + rangedIndex);
+        iconBounds.set(icon.left, icon.top, icon.right, icon.bottom);
+        width = geometry.arcThickness;
+        startAngle = geometry.getArcStartAngle(rangedIndex);
+        sweepAngle = geometry.getArcSweepAngle(rangedIndex);
 
-        if(complicationData.getType() == ComplicationData.TYPE_RANGED_VALUE) {
-            float minValue = complicationData.getMinValue();
-            float maxValue = complicationData.getMaxValue();
-            float currentValue = complicationData.getValue();
+        rebuildPaints();
+        updateDrawBounds();
+    }
 
-            // Translate the current progress to a percentage value between 0 and 1.
-            float percent = 0;
-            float range = Math.abs(maxValue - minValue);
-            if (range > 0) {
-                percent = (currentValue - minValue) / range;
+    /**
+     * Returns the region {@link #draw(Canvas, SlotSnapshot, float, boolean)} draws into, see
+     * {@link AmbientFrameCache}. The rect is shared, don't modify it.
+     */
+    public Rect getDrawBounds() {
+        return drawBounds;
+    }
 
-                // We don't want to deal progress values outside 0-100.
-                percent = Math.max(0f, percent);
-                percent = Math.min(1f, percent);
-            }
+    private void updateDrawBounds() {
+        float centerX = complicationBounds.centerX();
+        float centerY = complicationBounds.centerY();
+        float radiusX = complicationBounds.width() / 2;
+        float radiusY = complicationBounds.height() / 2;
 
-            // Draw it on the canvas.
-            canvas.drawArc(complicationBounds, startAngle, sweepAngle, false, secondaryPaint);
-            canvas.drawArc(complicationBounds, startAngle, sweepAngle * percent, false, primaryPaint);
-        } else {
-            String textToDraw = "No data";
-            long currentTime = System.nanoTime();
-            ComplicationText complicationText = complicationData.getShortText();
-            if(complicationText != null) {
-                textToDraw = complicationText.getText(context, currentTime).toString();
-            }
-            complicationText = complicationData.getShortTitle();
-            if(complicationText != null) {
-                textToDraw += " " + complicationText.getText(context, currentTime).toString();
+        // The extremes of an arc are its end points and the axis crossings it sweeps over.
+        double start = Math.toRadians(startAngle);
+        double end = Math.toRadians(startAngle + sweepAngle);
+        float left = centerX + radiusX * (float) Math.min(Math.cos(start), Math.cos(end));
+        float right = centerX + radiusX * (float) Math.max(Math.cos(start), Math.cos(end));
+        float top = centerY + radiusY * (float) Math.min(Math.sin(start), Math.sin(end));
+        float bottom = centerY + radiusY * (float) Math.max(Math.sin(start), Math.sin(end));
+        for (int axis = (int) Math.ceil(startAngle / 90); axis * 90 <= startAngle + sweepAngle; axis++) {
+            switch (axis & 3) {
+                case 0: right = centerX + radiusX; break;
+                case 1: bottom = centerY + radiusY; break;
+                case 2: left = centerX - radiusX; break;
+                case 3: top = centerY - radiusY; break;
             }
-            complicationText = complicationData.getImageContentDescription();
-            if(complicationText != null) {
-                textToDraw += " " + complicationText.getText(context, currentTime).toString();
+        }
+
+        // Half the stroke, the text that may stick out of it and the shadow.
+        int outset = (int) Math.ceil(width + SHADOW_RADIUS);
+        drawBounds.set((int) Math.floor(left) - outset, (int) Math.floor(top) - outset,
+                (int) Math.ceil(right) + outset, (int) Math.ceil(bottom) + outset);
+        drawBounds.union(iconBounds);
+    }
+
+    /**
+     * Returns which track {@link #drawTrack(Canvas, int)} draws for the given data.
+     * The track does not depend on the value of the complication, so it can be cached.
+     */
+    public static int getTrackType(ComplicationData complicationData) {
+        if(complicationData == null)
+            return TRACK_NONE;
+        if(complicationData.getType() == ComplicationData.TYPE_RANGED_VALUE)
+            return TRACK_RANGED;
+        return TRACK_TEXT;
+    }
+
+    /**
+     * Draws the static background arc of the complication. Only depends on the track type of the
+     * data, the render mode and how shadows are drawn, so it is kept in a {@link RetainedLayer}.
+     */
+    public void drawTrack(Canvas canvas, int trackType) {
+        // The track ends up in a retained layer, which is its baked shadow.
+        boolean baked = getShadowMode() == SHADOW_BAKED;
+        switch (trackType) {
+            case TRACK_RANGED:
+                canvas.drawArc(complicationBounds, startAngle, sweepAngle, false,
+                        baked ? paints.secondaryShadow : paints.secondary);
+                break;
+            case TRACK_TEXT:
+                canvas.drawArc(complicationBounds, startAngle, sweepAngle, false,
+                        baked ? paints.primaryShadow : paints.primary);
+                break;
+        }
+    }
+
+    /**
+     * Draws the dynamic part of the complication on top of its track.
+     *
+     * @param percent the progress to show for ranged data, which is animated towards the
+     *                {@link SlotSnapshot#percent} of the slot.
+     * @param laidOut whether the text and icons of the slot were built for the current geometry.
+     *                Right after a surface change they are not, and only the progress is drawn
+     *                until {@link ComplicationIngester} publishes them for the new size.
+     */
+    public void draw(Canvas canvas, SlotSnapshot slot, float percent, boolean laidOut) {
+        if(slot.data == null)
+            return;
+
+        // An animating arc changes every frame, there is nothing worth baking until it settles.
+        boolean animating = slot.trackType == TRACK_RANGED && percent != slot.percent;
+        boolean baked = getShadowMode() == SHADOW_BAKED;
+        if (baked && !animating) {
+            int index = ambientMode ? 1 : 0;
+            if (slot != bakedSlots[index] || paints != bakedPaints[index]
+                    || laidOut != bakedLaidOut[index]) {
+                bakeShadow(index, slot, laidOut);
             }
+            bakedShadows[index].draw(canvas);
+        }
 
-            canvas.drawArc(complicationBounds, startAngle, sweepAngle, false, primaryPaint);
-            canvas.drawTextOnPath(textToDraw, textPath, -width/2, width/4   , textPaint);
+        if(slot.trackType == TRACK_RANGED) {
+            // The track is already drawn by drawTrack.
+            canvas.drawArc(complicationBounds, startAngle, sweepAngle * percent, false,
+                    baked && animating ? paints.primaryShadow : paints.primary);
+        } else if (laidOut && slot.textPath != null) {
+            canvas.drawPath(slot.textPath, paints.text);
         }
-        drawRangeIcon(canvas, complicationData);
-    }
-
-    private void drawRangeIcon(Canvas canvas, ComplicationData complicationData) {
-        Icon i = null;
-        if (complicationData.getIcon() != null) {
-            i = complicationData.getIcon();
-        } else if (complicationData.getSmallImage() != null) {
-            i = complicationData.getSmallImage();
-        } else if (complicationData.getLargeImage() != null) {
-            i = complicationData.getLargeImage();
-        } else if (complicationData.getBurnInProtectionSmallImage() != null) {
-            i = complicationData.getBurnInProtectionSmallImage();
-        } else if (complicationData.getBurnInProtectionIcon() != null) {
-            i = complicationData.getBurnInProtectionIcon();
+
+        Bitmap icon = ambientMode ? slot.ambientIcon : slot.icon;
+        if (laidOut && icon != null) {
+            canvas.drawBitmap(icon, iconBounds.left, iconBounds.top, null);
         }
+    }
 
-        if (i != null) {
-            i.setTint(primaryPaint.getColor());
-            Drawable icon = i.loadDrawable(context);
-            icon.setBounds(iconBounds);
-            icon.draw(canvas);
+    // Draws what casts a shadow in draw(), with the same paints, into the baked shadow.
+    private void bakeShadow(int index, SlotSnapshot slot, boolean laidOut) {
+        Canvas maskCanvas = bakedShadows[index].begin(drawBounds);
+        if (slot.trackType == TRACK_RANGED) {
+            maskCanvas.drawArc(complicationBounds, startAngle, sweepAngle * slot.percent, false,
+                    paints.primary);
+        } else if (laidOut && slot.textPath != null) {
+            maskCanvas.drawPath(slot.textPath, paints.text);
         }
+        bakedShadows[index].end();
+
+        bakedSlots[index] = slot;
+        bakedPaints[index] = paints;
+        bakedLaidOut[index] = laidOut;
     }
 
     public void setAmbientMode(boolean ambientMode) {
-        if(ambientMode) {
-            primaryPaint.setAntiAlias(false);
-            primaryPaint.setColor(Color.DKGRAY);
-            secondaryPaint.setAntiAlias(false);
-            secondaryPaint.setColor(Color.LTGRAY);
-        } else {
-            primaryPaint.setAntiAlias(true);
-            primaryPaint.setColor(primaryColor);
-            secondaryPaint.setAntiAlias(true);
-            secondaryPaint.setColor(secondaryColor);
-        }
+        this.ambientMode = ambientMode;
+        selectPaints();
     }
 
     public void setHollow(boolean hollow) {
-        if(hollow) {
-            primaryPaint.setStrokeWidth(2);
-            secondaryPaint.setStrokeWidth(2);
-        } else {
-            primaryPaint.setStrokeWidth(width);
-            secondaryPaint.setStrokeWidth(width);
+        this.hollow = hollow;
+        selectPaints();
+    }
+
+    public void setLowBitAmbient(boolean lowBitAmbient) {
+        this.lowBitAmbient = lowBitAmbient;
+        selectPaints();
+    }
+
+    /**
+     * Sets how shadows are drawn, one of {@link #SHADOW_NONE}, {@link #SHADOW_BAKED} and
+     * {@link #SHADOW_LIVE}.
+     */
+    public void setShadowQuality(int shadowQuality) {
+        this.shadowQuality = shadowQuality;
+        rebuildPaints();
+    }
+
+    /**
+     * Sets which of the costly paint features are used, see
+     * {@link com.example.pizzawatchface.core.QualityGovernor}. The draw bounds keep room for the
+     * shadow either way.
+     */
+    public void setQuality(boolean shadows, boolean antiAlias) {
+        this.shadows = shadows;
+        this.antiAlias = antiAlias;
+        rebuildPaints();
+    }
+
+    // The user setting, unless the governor turned shadows off.
+    private int getShadowMode() {
+        return shadows ? shadowQuality : SHADOW_NONE;
+    }
+
+    /**
+     * Drops the baked shadows, they are baked again when needed.
+     */
+    public void release() {
+        for (int i = 0; i < bakedShadows.length; i++) {
+            bakedShadows[i].clear();
+            bakedSlots[i] = null;
+            bakedPaints[i] = null;
         }
     }
-}
\ No newline at end of file
+
+    /*
+     * Builds the paints of every mode. Only needed when the colors, the stroke width or the
+     * quality change, switching modes just selects another bundle.
+     */
+    private void rebuildPaints() {
+        // Only the live tier keeps the shadow layer on the regular paints.
+        paintSet = ArcPaints.createAll(primaryColor, secondaryColor, width, SHADOW_RADIUS,
+                antiAlias, getShadowMode() == SHADOW_LIVE);
+        selectPaints();
+    }
+
+    private void selectPaints() {
+        paints = paintSet[ArcPaints.mode(ambientMode, hollow, lowBitAmbient)];
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+
+/**
+ * The paints of an {@link ArcComplication} for one render mode, built ahead of time.
+ * <p>
+ * {@link #createAll} builds a bundle for every combination of interactive/ambient, filled/outline
+ * and normal/low-bit, so switching modes swaps a reference and never touches a native paint. The
+ * bundles are only built again when something other than the mode changes: the colors, the
+ * stroke width of a new surface or the render quality. The paints must not be modified.
+ */
+final class ArcPaints {
+    static final int MODE_COUNT = 8;
+
+    // Ambient colors. Low-bit bundles draw the arcs like the others, the mode index is shared
+    // with the center text paints, which do drop anti-aliasing there.
+    private static final int AMBIENT_PRIMARY_COLOR = Color.DKGRAY;
+    private static final int AMBIENT_SECONDARY_COLOR = Color.LTGRAY;
+
+    // The progress, or the track of text complications.
+    final Paint primary;
+    // The track of ranged complications.
+    final Paint secondary;
+    final Paint text;
+    // Variants with a live shadow, for what is drawn once and kept, like the retained tracks.
+    final Paint primaryShadow;
+    final Paint secondaryShadow;
+
+    private ArcPaints(Paint primary, Paint secondary, Paint text, Paint primaryShadow,
+                      Paint secondaryShadow) {
+        this.primary = primary;
+        this.secondary = secondary;
+        this.text = text;
+        this.primaryShadow = primaryShadow;
+        this.secondaryShadow = secondaryShadow;
+    }
+
+    static int mode(boolean ambient, boolean outline, boolean lowBit) {
+        return (ambient ? 4 : 0) | (outline ? 2 : 0) | (lowBit ? 1 : 0);
+    }
+
+    /**
+     * Builds the bundles of every mode, indexed by {@link #mode(boolean, boolean, boolean)}.
+     *
+     * @param antiAlias whether the arcs are anti-aliased in interactive mode.
+     * @param liveShadows whether the regular paints cast a shadow on every draw.
+     */
+    static ArcPaints[] createAll(int primaryColor, int secondaryColor, float strokeWidth,
+                                 float shadowRadius, boolean antiAlias, boolean liveShadows) {
+        ArcPaints[] paints = new ArcPaints[MODE_COUNT];
+        for (int mode = 0; mode < MODE_COUNT; mode++) {
+            boolean ambient = (mode & 4) != 0;
+            boolean outline = (mode & 2) != 0;
+
+            int primary = ambient ? AMBIENT_PRIMARY_COLOR : primaryColor;
+            int secondary = ambient ? AMBIENT_SECONDARY_COLOR : secondaryColor;
+            // The arcs are never anti-aliased in ambient mode, the text keeps it.
+            boolean arcAntiAlias = antiAlias && !ambient;
+            float width = outline ? 2 : strokeWidth;
+
+            Paint text = createPaint(secondaryColor, true, liveShadows, shadowRadius);
+            text.setStrokeWidth(1);
+            text.setStyle(Paint.Style.FILL_AND_STROKE);
+
+            paints[mode] = new ArcPaints(
+                    createStroke(primary, width, arcAntiAlias, liveShadows, shadowRadius),
+                    createStroke(secondary, width, arcAntiAlias, liveShadows, shadowRadius),
+                    text,
+                    createStroke(primary, width, arcAntiAlias, true, shadowRadius),
+                    createStroke(secondary, width, arcAntiAlias, true, shadowRadius));
+        }
+        return paints;
+    }
+
+    private static Paint createStroke(int color, float width, boolean antiAlias, boolean shadow,
+                                      float shadowRadius) {
+        Paint paint = createPaint(color, antiAlias, shadow, shadowRadius);
+        paint.setStrokeWidth(width);
+        return paint;
+    }
+
+    private static Paint createPaint(int color, boolean antiAlias, boolean shadow,
+                                     float shadowRadius) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setAntiAlias(antiAlias);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setTextSize(14);
+        if (shadow) {
+            paint.setShadowLayer(shadowRadius, 0, 0, Color.BLACK);
+        }
+        return paint;
+    }
+}
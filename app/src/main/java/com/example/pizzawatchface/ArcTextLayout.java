@@ -0,0 +1,89 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+/**
+ * Lays out a line of text along an arc once, into a single {@link Path}.
+ * <p>
+ * Unlike {@link Canvas#drawTextOnPath(String, Path, float, float, Paint)}, which shapes and places
+ * every glyph again on each call, the glyph outlines are positioned and rotated here with a
+ * {@link PathMeasure} when the text changes. Drawing is then a single
+ * {@link Canvas#drawPath(Path, Paint)}. Text that doesn't fit on the arc is ellipsized.
+ */
+public class ArcTextLayout {
+    private final TextPaint measurePaint;
+    private final PathMeasure pathMeasure = new PathMeasure();
+    private final Path glyphPath = new Path();
+    private final Matrix glyphMatrix = new Matrix();
+    private final float[] position = new float[2];
+    private final float[] tangent = new float[2];
+    private float[] widths = new float[32];
+
+    /**
+     * @param textPaint the paint the text will be drawn with, used for measuring the glyphs.
+     */
+    public ArcTextLayout(Paint textPaint) {
+        measurePaint = new TextPaint(textPaint);
+        // Glyphs are positioned one by one, so each of them is measured from its left edge.
+        measurePaint.setTextAlign(Paint.Align.LEFT);
+    }
+
+    /**
+     * Lays out the text centered on the arc, the same way
+     * {@link Canvas#drawTextOnPath(String, Path, float, float, Paint)} with a centered paint
+     * would.
+     *
+     * @param hOffset distance along the arc added to the text position.
+     * @param vOffset distance from the arc to the text baseline.
+     * @param textPath receives the glyph outlines, it is reset first.
+     */
+    public void layout(CharSequence text, Path arc, float hOffset, float vOffset, Path textPath) {
+        textPath.rewind();
+        if (TextUtils.isEmpty(text)) {
+            return;
+        }
+
+        pathMeasure.setPath(arc, false);
+        float arcLength = pathMeasure.getLength();
+
+        String line = TextUtils.ellipsize(text, measurePaint, arcLength,
+                TextUtils.TruncateAt.END).toString();
+        int length = line.length();
+        if (widths.length < length) {
+            widths = new float[length];
+        }
+        measurePaint.getTextWidths(line, 0, length, widths);
+
+        float textWidth = 0;
+        for (int i = 0; i < length; i++) {
+            textWidth += widths[i];
+        }
+
+        float distance = arcLength / 2 + hOffset - textWidth / 2;
+        int start = 0;
+        while (start < length) {
+            int end = start + Character.charCount(line.codePointAt(start));
+            float glyphWidth = 0;
+            for (int i = start; i < end; i++) {
+                glyphWidth += widths[i];
+            }
+
+            // Place the horizontal center of the glyph on the arc, rotated along its tangent.
+            float center = Math.max(0, Math.min(arcLength, distance + glyphWidth / 2));
+            pathMeasure.getPosTan(center, position, tangent);
+            measurePaint.getTextPath(line, start, end, -glyphWidth / 2, vOffset, glyphPath);
+            glyphMatrix.setRotate((float) Math.toDegrees(Math.atan2(tangent[1], tangent[0])));
+            glyphMatrix.postTranslate(position[0], position[1]);
+            textPath.addPath(glyphPath, glyphMatrix);
+
+            distance += glyphWidth;
+            start = end;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.BlurMaskFilter;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * The drop shadow of a few shapes, blurred once into an alpha bitmap and composited on the frames
+ * after that.
+ * <p>
+ * The shapes are drawn into an alpha mask between {@link #begin(Rect)} and {@link #end()}, and
+ * the mask is blurred with a {@link BlurMaskFilter} of the given radius. That is what
+ * {@link Paint#setShadowLayer(float, float, float, int)} does for every draw call, so a baked
+ * shadow looks the same as a live one, it just isn't blurred again on every frame.
+ * <p>
+ * Not thread safe, confine it to one thread.
+ */
+public class BakedShadow {
+    private final Paint blurPaint = new Paint();
+    private final Paint shadowPaint = new Paint();
+    private final Canvas maskCanvas = new Canvas();
+    private final Rect bounds = new Rect();
+    private final int[] offset = new int[2];
+    private Bitmap mask;
+    private Bitmap shadow;
+    private int left;
+    private int top;
+
+    public BakedShadow(float radius, int color) {
+        blurPaint.setMaskFilter(new BlurMaskFilter(radius, BlurMaskFilter.Blur.NORMAL));
+        shadowPaint.setColor(color);
+    }
+
+    /**
+     * Starts a new shadow. Everything drawn into the returned canvas, in the coordinates of the
+     * face and within the bounds, casts it. The previous shadow is dropped.
+     */
+    public Canvas begin(Rect bounds) {
+        this.bounds.set(bounds);
+        int width = Math.max(1, bounds.width());
+        int height = Math.max(1, bounds.height());
+        if (mask == null || mask.getWidth() != width || mask.getHeight() != height) {
+            if (mask != null) {
+                mask.recycle();
+            }
+            mask = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        } else {
+            mask.eraseColor(Color.TRANSPARENT);
+        }
+
+        maskCanvas.setBitmap(mask);
+        maskCanvas.save();
+        maskCanvas.translate(-bounds.left, -bounds.top);
+        return maskCanvas;
+    }
+
+    /**
+     * Blurs what was drawn since {@link #begin(Rect)} into the shadow.
+     */
+    public void end() {
+        maskCanvas.restore();
+        maskCanvas.setBitmap(null);
+
+        if (shadow != null) {
+            shadow.recycle();
+        }
+        // The blurred bitmap is larger than the mask, the offset says by how much.
+        shadow = mask.extractAlpha(blurPaint, offset);
+        left = bounds.left + offset[0];
+        top = bounds.top + offset[1];
+    }
+
+    public void draw(Canvas canvas) {
+        if (shadow != null) {
+            canvas.drawBitmap(shadow, left, top, shadowPaint);
+        }
+    }
+
+    public void clear() {
+        if (mask != null) {
+            mask.recycle();
+            mask = null;
+        }
+        if (shadow != null) {
+            shadow.recycle();
+            shadow = null;
+        }
+    }
+}
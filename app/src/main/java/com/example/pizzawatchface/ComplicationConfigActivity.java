@@ -23,18 +23,19 @@ import android.content.Intent;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import androidx.annotation.Nullable;
+import android.support.wearable.complications.ComplicationData;
 import android.support.wearable.complications.ComplicationHelperActivity;
 import android.support.wearable.complications.ComplicationProviderInfo;
 import android.support.wearable.complications.ProviderChooserIntent;
 import android.support.wearable.complications.ProviderInfoRetriever;
 import android.view.View;
+import android.widget.AdapterView;
 import android.widget.CompoundButton;
 import android.widget.ImageButton;
 import android.widget.ImageView;
+import android.widget.Spinner;
 import android.widget.Switch;
 
-import java.util.concurrent.Executors;
-
 public class ComplicationConfigActivity extends Activity implements View.OnClickListener {
 
     static final int COMPLICATION_CONFIG_REQUEST_CODE = 1001;
@@ -48,6 +49,31 @@ public class ComplicationConfigActivity extends Activity implements View.OnClick
     // Required to retrieve complication data from watch face for preview.
     private ProviderInfoRetriever mProviderInfoRetriever;
 
+    // Providers seen by earlier visits of the screen, shown until the retriever answers.
+    private ProviderInfoCache mProviderInfoCache;
+
+    // Face settings, persisted and shared with the engines.
+    private FaceConfigStore mConfigStore;
+
+    // Live miniature of the face behind the complication buttons.
+    private FacePreview mFacePreview;
+    private final FaceConfigStore.Listener mConfigListener = new FaceConfigStore.Listener() {
+        @Override
+        public void onConfigChanged(FaceConfigStore store) {
+            mFacePreview.setHollowMode(store.isHollowMode());
+            mFacePreview.setShadowQuality(store.getShadowQuality());
+            mFacePreview.setIconThemeMode(store.isIconThemeMode());
+        }
+    };
+    private final ComplicationDataRepository.Listener mComplicationDataListener =
+            new ComplicationDataRepository.Listener() {
+                @Override
+                public void onComplicationDataChanged(int complicationId,
+                                                      ComplicationData complicationData) {
+                    mFacePreview.setComplicationData(complicationId, complicationData);
+                }
+            };
+
 
     private ImageView mRightComplicationBackground;
     private ImageView mTopRightComplicationBackground;
@@ -132,20 +158,73 @@ public class ComplicationConfigActivity extends Activity implements View.OnClick
         mCenterComplication = findViewById(R.id.center_complication);
         setUpComplication(mCenterComplicationBackground, mCenterComplication);
 
-        PizzaWatchFaceService.Engine e = PizzaWatchFaceService.getEngine();
+        // The running engines pick the settings up through their listener on the store.
+        mConfigStore = FaceConfigStore.get(getApplicationContext());
+
+        mFacePreview = new FacePreview(this, (ImageView) findViewById(R.id.face_preview));
+        mFacePreview.setHollowMode(mConfigStore.isHollowMode());
+        mFacePreview.setShadowQuality(mConfigStore.getShadowQuality());
+        mFacePreview.setIconThemeMode(mConfigStore.isIconThemeMode());
+        mConfigStore.addListener(mConfigListener);
+        ComplicationDataRepository.get().addListener(mComplicationDataListener);
         Switch mHollowSwitch = findViewById(R.id.hollow_switch);
-        mHollowSwitch.setChecked(e.getHollowMode());
+        mHollowSwitch.setChecked(mConfigStore.isHollowMode());
         mHollowSwitch.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(CompoundButton compoundButton, boolean b) {
-                PizzaWatchFaceService.Engine e = PizzaWatchFaceService.getEngine();
-                e.setHollowMode(b);
+                mConfigStore.setHollowMode(b);
+            }
+        });
+
+        Switch mIconThemeSwitch = findViewById(R.id.icon_theme_switch);
+        mIconThemeSwitch.setChecked(mConfigStore.isIconThemeMode());
+        mIconThemeSwitch.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton compoundButton, boolean b) {
+                mConfigStore.setIconThemeMode(b);
+            }
+        });
+
+        // The entries of the spinner are in the order of the ArcComplication.SHADOW_* values.
+        Spinner mShadowSpinner = findViewById(R.id.shadow_spinner);
+        mShadowSpinner.setSelection(mConfigStore.getShadowQuality());
+        mShadowSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> adapterView, View view, int position,
+                                       long id) {
+                mConfigStore.setShadowQuality(position);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> adapterView) {
             }
         });
 
+        // The frame time overlay is a debugging aid, only offered in debug builds.
+        if (BuildConfig.DEBUG) {
+            findViewById(R.id.debug_overlay_layout).setVisibility(View.VISIBLE);
+            Switch mDebugOverlaySwitch = findViewById(R.id.debug_overlay_switch);
+            mDebugOverlaySwitch.setChecked(mConfigStore.isDebugOverlayEnabled());
+            mDebugOverlaySwitch.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+                @Override
+                public void onCheckedChanged(CompoundButton compoundButton, boolean b) {
+                    mConfigStore.setDebugOverlayEnabled(b);
+                }
+            });
+        }
+
+        // Shows the providers known from earlier visits right away, then refreshes them.
+        mProviderInfoCache = ProviderInfoCache.get();
+        for (int complicationId : COMPLICATION_IDS) {
+            if (mProviderInfoCache.contains(complicationId)) {
+                updateComplicationViews(complicationId,
+                        mProviderInfoCache.getProviderInfo(complicationId));
+            }
+        }
+
         // Initialization of code to retrieve active complication data for the watch face.
         mProviderInfoRetriever =
-                new ProviderInfoRetriever(getApplicationContext(), Executors.newCachedThreadPool());
+                new ProviderInfoRetriever(getApplicationContext(), BackgroundExecutor.get());
         mProviderInfoRetriever.init();
 
         retrieveInitialComplicationsData();
@@ -201,6 +280,10 @@ public class ComplicationConfigActivity extends Activity implements View.OnClick
 
         // Required to release retriever for active complication data.
         mProviderInfoRetriever.release();
+
+        mConfigStore.removeListener(mConfigListener);
+        ComplicationDataRepository.get().removeListener(mComplicationDataListener);
+        mFacePreview.release();
     }
 
     public void retrieveInitialComplicationsData() {
@@ -213,6 +296,7 @@ public class ComplicationConfigActivity extends Activity implements View.OnClick
                     public void onProviderInfoReceived(
                             int watchFaceComplicationId,
                             @Nullable ComplicationProviderInfo complicationProviderInfo) {
+                        mProviderInfoCache.put(watchFaceComplicationId, complicationProviderInfo);
                         updateComplicationViews(watchFaceComplicationId, complicationProviderInfo);
                     }
                 },
@@ -321,6 +405,8 @@ public class ComplicationConfigActivity extends Activity implements View.OnClick
                     data.getParcelableExtra(ProviderChooserIntent.EXTRA_PROVIDER_INFO);
 
             if (mSelectedComplicationId >= 0) {
+                // The chooser tells us the new provider, no need to ask the retriever again.
+                mProviderInfoCache.put(mSelectedComplicationId, complicationProviderInfo);
                 updateComplicationViews(mSelectedComplicationId, complicationProviderInfo);
             }
         }
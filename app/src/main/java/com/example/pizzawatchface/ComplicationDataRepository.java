@@ -0,0 +1,56 @@
+package com.example.pizzawatchface;
+
+import android.support.wearable.complications.ComplicationData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.pizzawatchface.Constants.COMPLICATION_IDS;
+
+/**
+ * The latest {@link ComplicationData} the watch face received for every slot, shared with the
+ * config screen so {@link FacePreview} shows the real complications.
+ * <p>
+ * Only accessed from the main thread, where the engine receives its data.
+ */
+public class ComplicationDataRepository {
+
+    /**
+     * Notified on the main thread when the data of a slot changed.
+     */
+    public interface Listener {
+        void onComplicationDataChanged(int complicationId, ComplicationData complicationData);
+    }
+
+    private static final ComplicationDataRepository INSTANCE = new ComplicationDataRepository();
+
+    private final ComplicationData[] complicationData =
+            new ComplicationData[COMPLICATION_IDS.length];
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private ComplicationDataRepository() {
+    }
+
+    public static ComplicationDataRepository get() {
+        return INSTANCE;
+    }
+
+    public ComplicationData getComplicationData(int complicationId) {
+        return complicationData[complicationId];
+    }
+
+    public void setComplicationData(int complicationId, ComplicationData data) {
+        complicationData[complicationId] = data;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onComplicationDataChanged(complicationId, data);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+}
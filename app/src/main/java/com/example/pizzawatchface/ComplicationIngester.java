@@ -0,0 +1,418 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.drawable.Icon;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.wearable.complications.ComplicationData;
+
+import com.example.pizzawatchface.core.Box;
+import com.example.pizzawatchface.core.Clock;
+import com.example.pizzawatchface.core.FaceGeometry;
+import com.example.pizzawatchface.core.RangeMath;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.pizzawatchface.Constants.*;
+
+/**
+ * Turns incoming {@link ComplicationData} into immutable {@link FaceSnapshot}s on a worker
+ * thread, so the UI thread only ever reads a ready snapshot.
+ * <p>
+ * Updates are queued to the worker and coalesced: a burst of data updates is ingested as a whole
+ * and published once, after the last of them. Only the slots that changed are rebuilt, the others
+ * are carried over to the new snapshot. Time-dependent texts are evaluated again and published
+ * at the time they change, see {@link ComplicationTextCache}. In ambient mode the face is only
+ * drawn on the minute tick, so the worker doesn't wake up for text changes there: they are
+ * published when the tick asks for them, see {@link #onTimeTick()}.
+ * <p>
+ * The setters can be called from any thread, the listener is invoked on the callback looper.
+ */
+public class ComplicationIngester {
+
+    /**
+     * Notified when a new snapshot is available from {@link #getSnapshot()}.
+     */
+    public interface Listener {
+        void onSnapshotPublished();
+    }
+
+    private static final int MSG_PUBLISH = 0;
+
+    private final Clock mClock;
+    private final HandlerThread mThread;
+    private final Handler mHandler;
+    private final Handler mCallbackHandler;
+    private final Listener mListener;
+    private final AtomicReference<FaceSnapshot> mSnapshot =
+            new AtomicReference<>(FaceSnapshot.EMPTY);
+    // When a text changes next, and when the worker wakes up to publish it, never while ambient.
+    private volatile long mNextChangeTime = Long.MAX_VALUE;
+    private volatile long mNextPublishTime = Long.MAX_VALUE;
+
+    // Set by the worker when it posts a notification, so awaitPublish can deliver it right away.
+    private final AtomicBoolean mNotifyPending = new AtomicBoolean();
+    private final Runnable mNotifyListener = new Runnable() {
+        @Override
+        public void run() {
+            if (mNotifyPending.getAndSet(false)) {
+                mListener.onSnapshotPublished();
+            }
+        }
+    };
+
+    // Only accessed from the worker thread.
+    private final ComplicationTextCache mTextCache;
+    private final IconCache mIconCache;
+    private final ArcTextLayout[] mTextLayouts = new ArcTextLayout[RANGE_COMPLICATION_COUNT];
+    private final int[] mIconTints = new int[RANGE_COMPLICATION_COUNT];
+    private final ComplicationData[] mData = new ComplicationData[COMPLICATION_IDS.length];
+    private final SlotSnapshot[] mSlots = new SlotSnapshot[COMPLICATION_IDS.length];
+    private final boolean[] mDirty = new boolean[COMPLICATION_IDS.length];
+    private final StringBuilder mTextBuilder = new StringBuilder();
+    private final Path mArcPath = new Path();
+    private final RectF mArcBounds = new RectF();
+    private FaceGeometry mGeometry;
+    private boolean mBurnInProtection;
+    private boolean mAmbientMode;
+    // Whether the listener is notified on the next publish even if nothing changed.
+    private boolean mTickPending;
+
+    /**
+     * @param clock the time texts are evaluated at.
+     * @param arcs the arcs the snapshots are drawn with, their text measure and colors are
+     *             copied, the arcs themselves are not touched afterwards.
+     */
+    public ComplicationIngester(Context context, Looper callbackLooper, Clock clock,
+                                ArcComplication[] arcs, Listener listener) {
+        mClock = clock;
+        mListener = listener;
+        mCallbackHandler = new Handler(callbackLooper);
+
+        mTextCache = new ComplicationTextCache(context, COMPLICATION_IDS.length);
+        mIconCache = new IconCache(context);
+        for (int i = 0; i < arcs.length; i++) {
+            mTextLayouts[i] = arcs[i].newTextLayout();
+            // Icons are tinted with the color of the progress arc.
+            mIconTints[i] = arcs[i].getPrimaryColor();
+        }
+        for (int i = 0; i < mSlots.length; i++) {
+            mSlots[i] = SlotSnapshot.EMPTY;
+        }
+
+        mThread = new HandlerThread("ComplicationIngest", Process.THREAD_PRIORITY_BACKGROUND);
+        mThread.start();
+        mHandler = new Handler(mThread.getLooper(), new Handler.Callback() {
+            @Override
+            public boolean handleMessage(Message msg) {
+                if (msg.what == MSG_PUBLISH) {
+                    publish();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Returns the latest published snapshot, never null.
+     */
+    public FaceSnapshot getSnapshot() {
+        return mSnapshot.get();
+    }
+
+    public void setComplicationData(final int complicationId, final ComplicationData data) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mData[complicationId] = data;
+                mDirty[complicationId] = true;
+            }
+        });
+        requestPublish();
+    }
+
+    public void setGeometry(final FaceGeometry geometry) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (geometry == mGeometry) {
+                    return;
+                }
+                mGeometry = geometry;
+                // Icons of the previous size stay cached in case the surface changes back.
+                markRangedDirty();
+            }
+        });
+        requestPublish();
+    }
+
+    /**
+     * Changes the color the icon of an arc is tinted with, see {@link ArcComplication#setColors}.
+     */
+    public void setIconTint(final int rangedIndex, final int tint) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (tint == mIconTints[rangedIndex]) {
+                    return;
+                }
+                mIconTints[rangedIndex] = tint;
+                mDirty[rangedIndex + RANGED_ID_OFFSET] = true;
+            }
+        });
+        requestPublish();
+    }
+
+    public void setBurnInProtection(final boolean burnInProtection) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (burnInProtection == mBurnInProtection) {
+                    return;
+                }
+                mBurnInProtection = burnInProtection;
+                markRangedDirty();
+            }
+        });
+        requestPublish();
+    }
+
+    /**
+     * Pauses publishing text changes by time while ambient, see {@link #onTimeTick()}.
+     * Leaving ambient publishes the texts that changed in the meantime.
+     */
+    public void setAmbientMode(final boolean ambientMode) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mAmbientMode = ambientMode;
+            }
+        });
+        requestPublish();
+    }
+
+    /**
+     * Publishes the texts that changed by now, for the minute tick of ambient mode.
+     *
+     * @return true if a text changed, the listener is then notified once it is published, even
+     *         if the text turns out to be the same.
+     */
+    public boolean onTimeTick() {
+        if (mNextChangeTime > mClock.currentTimeMillis()) {
+            return false;
+        }
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mTickPending = true;
+            }
+        });
+        requestPublish();
+        return true;
+    }
+
+    /**
+     * Returns the time the next text change is published at, or {@link Long#MAX_VALUE} if no text
+     * changes with time or the worker waits for the tick.
+     */
+    public long getNextPublishTime() {
+        return mNextPublishTime;
+    }
+
+    /**
+     * Publishes what was set so far, with the texts evaluated at the current time of the clock,
+     * and waits until it's done. Only for replays on a simulated clock, where the texts have to
+     * follow the clock rather than the worker's timer; the watch never blocks on the worker.
+     * Must be called on the thread of the callback looper: the listener is notified before this
+     * returns, the looper can't get to it while the caller waits.
+     */
+    public void awaitPublish() {
+        final CountDownLatch published = new CountDownLatch(1);
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                publish();
+                published.countDown();
+            }
+        });
+        boolean interrupted = false;
+        while (true) {
+            try {
+                published.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        mNotifyListener.run();
+    }
+
+    /**
+     * Stops the worker and drops the decoded icons. No snapshot is published afterwards.
+     */
+    public void release() {
+        mHandler.removeMessages(MSG_PUBLISH);
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mIconCache.clear();
+            }
+        });
+        mThread.quitSafely();
+        mCallbackHandler.removeCallbacks(mNotifyListener);
+    }
+
+    /*
+     * Moves the publish behind everything queued so far, so a burst of updates is published
+     * once after its last update.
+     */
+    private void requestPublish() {
+        mHandler.removeMessages(MSG_PUBLISH);
+        mHandler.sendEmptyMessage(MSG_PUBLISH);
+    }
+
+    // Called on the worker thread.
+    private void markRangedDirty() {
+        for (int i = RANGED_ID_OFFSET; i < mDirty.length; i++) {
+            mDirty[i] = true;
+        }
+    }
+
+    // Called on the worker thread.
+    private void publish() {
+        mHandler.removeMessages(MSG_PUBLISH);
+        long now = mClock.currentTimeMillis();
+
+        boolean changed = false;
+        long nextChangeTime = Long.MAX_VALUE;
+        for (int i = 0; i < mSlots.length; i++) {
+            boolean textChanged = mTextCache.update(i, mData[i], now);
+            nextChangeTime = Math.min(nextChangeTime, mTextCache.getNextChangeTime(i));
+            if (mDirty[i] || textChanged) {
+                mDirty[i] = false;
+                mSlots[i] = buildSlot(i, mData[i]);
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            mSnapshot.set(new FaceSnapshot(mGeometry, mSlots.clone()));
+        }
+        if (changed || mTickPending) {
+            mTickPending = false;
+            mNotifyPending.set(true);
+            mCallbackHandler.post(mNotifyListener);
+        }
+
+        mNextChangeTime = nextChangeTime;
+        mNextPublishTime = mAmbientMode ? Long.MAX_VALUE : nextChangeTime;
+        if (mNextPublishTime != Long.MAX_VALUE) {
+            mHandler.sendEmptyMessageAtTime(MSG_PUBLISH,
+                    SystemClock.uptimeMillis() + Math.max(0, nextChangeTime - now));
+        }
+    }
+
+    // Called on the worker thread, after the texts of the slot were brought up to date.
+    private SlotSnapshot buildSlot(int complicationId, ComplicationData data) {
+        if (data == null) {
+            return SlotSnapshot.EMPTY;
+        }
+        String shortText = mTextCache.get(complicationId, ComplicationTextCache.FIELD_SHORT_TEXT);
+        int rangedIndex = complicationId - RANGED_ID_OFFSET;
+        if (rangedIndex < 0) {
+            return new SlotSnapshot(data, ArcComplication.TRACK_NONE, 0, shortText, null, null,
+                    null);
+        }
+
+        int trackType = ArcComplication.getTrackType(data);
+        float percent = 0;
+        if (trackType == ArcComplication.TRACK_RANGED) {
+            percent = RangeMath.percent(data.getMinValue(), data.getMaxValue(), data.getValue());
+        }
+        if (mGeometry == null) {
+            return new SlotSnapshot(data, trackType, percent, shortText, null, null, null);
+        }
+
+        Path textPath = null;
+        if (trackType == ArcComplication.TRACK_TEXT) {
+            textPath = layoutText(complicationId, rangedIndex);
+        }
+
+        Box iconBounds = mGeometry.getSlotBounds(complicationId);
+        int iconWidth = iconBounds.width();
+        int iconHeight = iconBounds.height();
+        // Both variants are decoded, so entering ambient mode doesn't need a new snapshot.
+        Bitmap icon = mIconCache.get(selectIcon(data, false), mIconTints[rangedIndex], false,
+                iconWidth, iconHeight);
+        Bitmap ambientIcon = mIconCache.get(selectIcon(data, true), Color.DKGRAY, true,
+                iconWidth, iconHeight);
+
+        return new SlotSnapshot(data, trackType, percent, shortText, textPath, icon, ambientIcon);
+    }
+
+    private Path layoutText(int complicationId, int rangedIndex) {
+        String shortText = mTextCache.get(complicationId, ComplicationTextCache.FIELD_SHORT_TEXT);
+        String shortTitle = mTextCache.get(complicationId, ComplicationTextCache.FIELD_SHORT_TITLE);
+        String contentDescription = mTextCache.get(complicationId,
+                ComplicationTextCache.FIELD_CONTENT_DESCRIPTION);
+
+        mTextBuilder.setLength(0);
+        mTextBuilder.append(shortText != null ? shortText : "No data");
+        if (shortTitle != null) {
+            mTextBuilder.append(' ').append(shortTitle);
+        }
+        if (contentDescription != null) {
+            mTextBuilder.append(' ').append(contentDescription);
+        }
+
+        mArcBounds.set(mGeometry.arcLeft, mGeometry.arcTop, mGeometry.arcRight,
+                mGeometry.arcBottom);
+        mArcPath.rewind();
+        mArcPath.addArc(mArcBounds, mGeometry.getArcStartAngle(rangedIndex),
+                mGeometry.getArcSweepAngle(rangedIndex));
+
+        // A new path every time, the previous one may still be drawn from an older snapshot.
+        Path textPath = new Path();
+        float width = mGeometry.arcThickness;
+        mTextLayouts[rangedIndex].layout(mTextBuilder, mArcPath, -width / 2, width / 4, textPath);
+        return textPath;
+    }
+
+    private Icon selectIcon(ComplicationData complicationData, boolean ambient) {
+        // Prefer the burn in protection variants in ambient mode on screens that need them.
+        if (ambient && mBurnInProtection) {
+            if (complicationData.getBurnInProtectionIcon() != null) {
+                return complicationData.getBurnInProtectionIcon();
+            } else if (complicationData.getBurnInProtectionSmallImage() != null) {
+                return complicationData.getBurnInProtectionSmallImage();
+            }
+        }
+
+        if (complicationData.getIcon() != null) {
+            return complicationData.getIcon();
+        } else if (complicationData.getSmallImage() != null) {
+            return complicationData.getSmallImage();
+        } else if (complicationData.getLargeImage() != null) {
+            return complicationData.getLargeImage();
+        } else if (complicationData.getBurnInProtectionSmallImage() != null) {
+            return complicationData.getBurnInProtectionSmallImage();
+        } else if (complicationData.getBurnInProtectionIcon() != null) {
+            return complicationData.getBurnInProtectionIcon();
+        }
+        return null;
+    }
+}
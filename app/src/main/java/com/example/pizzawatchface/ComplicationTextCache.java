@@ -0,0 +1,94 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationText;
+import android.text.TextUtils;
+
+/**
+ * Caches the evaluated text fields of every complication slot.
+ * <p>
+ * An entry is keyed on the {@link ComplicationData} instance and stays valid until the next time
+ * one of its texts can change (see {@link ComplicationText#getNextChangeTime(long)}). Static text
+ * is therefore evaluated once per data update, and time-dependent text (timers, countdowns) only
+ * when it actually changes.
+ */
+public class ComplicationTextCache {
+    public static final int FIELD_SHORT_TEXT = 0;
+    public static final int FIELD_SHORT_TITLE = 1;
+    public static final int FIELD_CONTENT_DESCRIPTION = 2;
+    private static final int FIELD_COUNT = 3;
+
+    private final Context context;
+    private final ComplicationData[] data;
+    private final String[][] values;
+    private final long[] nextChangeTimes;
+
+    public ComplicationTextCache(Context context, int slotCount) {
+        this.context = context;
+        data = new ComplicationData[slotCount];
+        values = new String[slotCount][FIELD_COUNT];
+        nextChangeTimes = new long[slotCount];
+    }
+
+    /**
+     * Brings the slot up to date for the given frame time.
+     *
+     * @return true if the data instance or any text of the slot changed.
+     */
+    public boolean update(int slot, ComplicationData complicationData, long currentTimeMillis) {
+        if (data[slot] == complicationData && currentTimeMillis < nextChangeTimes[slot]) {
+            return false;
+        }
+        // New data always counts as a change, even if the texts are the same.
+        boolean changed = data[slot] != complicationData;
+        data[slot] = complicationData;
+
+        long nextChangeTime = Long.MAX_VALUE;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            ComplicationText text = getField(complicationData, field);
+            String value = null;
+            if (text != null) {
+                value = text.getText(context, currentTimeMillis).toString();
+                nextChangeTime = Math.min(nextChangeTime, text.getNextChangeTime(currentTimeMillis));
+            }
+            if (!TextUtils.equals(value, values[slot][field])) {
+                values[slot][field] = value;
+                changed = true;
+            }
+        }
+        nextChangeTimes[slot] = nextChangeTime;
+        return changed;
+    }
+
+    /**
+     * Returns the evaluated text of a field, or null if the complication doesn't have it.
+     */
+    public String get(int slot, int field) {
+        return values[slot][field];
+    }
+
+    /**
+     * Returns the time at which a text of the slot changes next, or {@link Long#MAX_VALUE} if all
+     * of its texts are static.
+     */
+    public long getNextChangeTime(int slot) {
+        return nextChangeTimes[slot];
+    }
+
+    private static ComplicationText getField(ComplicationData complicationData, int field) {
+        if (complicationData == null) {
+            return null;
+        }
+        switch (field) {
+            case FIELD_SHORT_TEXT:
+                return complicationData.getShortText();
+            case FIELD_SHORT_TITLE:
+                return complicationData.getShortTitle();
+            case FIELD_CONTENT_DESCRIPTION:
+                return complicationData.getImageContentDescription();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import com.example.pizzawatchface.core.FrameStats;
+
+import java.util.ArrayList;
+
+/**
+ * Draws the face as a list of {@link RenderNode}s, in the order they were added.
+ * <p>
+ * Changes are reported by what changed, {@link #invalidate(int)} for the layout, the mode or the
+ * style and {@link #invalidateSlot(int)} for new data, and only the nodes that depend on it are
+ * marked out of date. The listener gets the bounds of each, so the ambient frame is patched just
+ * there. Retained nodes are then rendered again on the next frame that draws them, every other
+ * retained node is blitted from its layer.
+ * <p>
+ * Confine a compositor to the thread that draws.
+ */
+class Compositor {
+
+    /**
+     * Notified with the bounds of every visible node that was invalidated.
+     */
+    interface Listener {
+        void onRegionInvalidated(Rect bounds);
+    }
+
+    private final ArrayList<RenderNode> nodes = new ArrayList<>();
+    private final FrameStats frameStats;
+    private final Listener listener;
+
+    Compositor(FrameStats frameStats, Listener listener) {
+        this.frameStats = frameStats;
+        this.listener = listener;
+    }
+
+    /**
+     * Builds the part of the layer keys that stands for the render mode.
+     *
+     * @param qualityTier see {@link com.example.pizzawatchface.core.QualityGovernor}.
+     * @param shadowQuality see {@link ArcComplication#setShadowQuality(int)}.
+     */
+    static long modeKey(boolean ambient, boolean outline, boolean lowBit, int qualityTier,
+                        int shadowQuality) {
+        long key = ArcPaints.mode(ambient, outline, lowBit);
+        key = (key << 2) | (qualityTier & 0x3);
+        key = (key << 2) | (shadowQuality & 0x3);
+        return key;
+    }
+
+    /**
+     * Adds a node on top of the ones added before.
+     */
+    void add(RenderNode node) {
+        nodes.add(node);
+    }
+
+    /**
+     * Invalidates the nodes that depend on any of the given
+     * {@link RenderNode#INVALIDATED_BY_LAYOUT INVALIDATED_BY_*} flags.
+     */
+    void invalidate(int invalidatedBy) {
+        for (int i = 0; i < nodes.size(); i++) {
+            RenderNode node = nodes.get(i);
+            if ((node.invalidatedBy & invalidatedBy) == 0) {
+                continue;
+            }
+            // The mode is part of the layer key, the layers of the other modes stay valid.
+            if (node.layer != null && (invalidatedBy & ~RenderNode.INVALIDATED_BY_MODE) != 0) {
+                node.layer.invalidate();
+            }
+            notifyInvalidated(node);
+        }
+    }
+
+    /**
+     * Invalidates the nodes that show the data of the slot.
+     */
+    void invalidateSlot(int complicationId) {
+        int bit = RenderNode.slotBit(complicationId);
+        for (int i = 0; i < nodes.size(); i++) {
+            RenderNode node = nodes.get(i);
+            if ((node.invalidatedBy & RenderNode.INVALIDATED_BY_DATA) != 0
+                    && (node.slotMask & bit) != 0) {
+                invalidate(node);
+            }
+        }
+    }
+
+    /**
+     * Invalidates a single node, for changes only its owner knows about.
+     */
+    void invalidate(RenderNode node) {
+        if (node.layer != null) {
+            node.layer.invalidate();
+        }
+        notifyInvalidated(node);
+    }
+
+    /**
+     * Draws the visible nodes. With a dirty region, as when the ambient frame is patched, only
+     * the nodes that intersect it are drawn.
+     *
+     * @param retain whether retained nodes go through their layers. The ambient frame is a layer
+     *               of its own, so there they are drawn directly.
+     */
+    void draw(Canvas canvas, long modeKey, long frameTimeMillis, Rect dirty, boolean retain) {
+        for (int i = 0; i < nodes.size(); i++) {
+            RenderNode node = nodes.get(i);
+            if (!node.isVisible()
+                    || (dirty != null && !Rect.intersects(dirty, node.getBounds()))) {
+                continue;
+            }
+
+            if (node.phase != RenderNode.NO_PHASE) {
+                frameStats.begin(node.phase);
+            }
+            if (!retain || node.layer == null || node.isAnimating(frameTimeMillis)) {
+                node.render(canvas);
+            } else {
+                node.layer.draw(canvas, node.getLayerKey(modeKey), node.getBounds(), node);
+            }
+            if (node.phase != RenderNode.NO_PHASE) {
+                frameStats.end(node.phase);
+            }
+        }
+    }
+
+    /**
+     * Releases the layers of every node, they are rendered again when needed.
+     */
+    void release() {
+        for (int i = 0; i < nodes.size(); i++) {
+            RetainedLayer layer = nodes.get(i).layer;
+            if (layer != null) {
+                layer.clear();
+            }
+        }
+    }
+
+    private void notifyInvalidated(RenderNode node) {
+        if (node.isVisible()) {
+            listener.onRegionInvalidated(node.getBounds());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * User settings of the face, shared by the engines and {@link ComplicationConfigActivity}.
+ * <p>
+ * The settings are a handful of flags and the shadow quality, persisted as a few bytes in an
+ * {@link AtomicFile}. Reading them is cheap enough to do synchronously on the first
+ * {@link #get(Context)}, so an engine draws the configured style from its very first frame. Changes are applied in memory and delivered to
+ * the listeners right away, the file is written on the {@link BackgroundExecutor}. A file that
+ * can't be read whole, or holds values this version doesn't know, leaves the defaults in place.
+ * <p>
+ * Setters and listener registration must be called on the main thread.
+ */
+public class FaceConfigStore {
+    private static final String TAG = "FaceConfigStore";
+    private static final String FILE_NAME = "face_config.bin";
+    // Version 2 added the shadow quality, files of version 1 still have valid flags.
+    private static final int VERSION = 2;
+
+    private static final int FLAG_HOLLOW = 1;
+    private static final int FLAG_DEBUG_OVERLAY = 1 << 1;
+    private static final int FLAG_ICON_THEME = 1 << 2;
+
+    /**
+     * Notified on the main thread after a setting changed.
+     */
+    public interface Listener {
+        void onConfigChanged(FaceConfigStore store);
+    }
+
+    private static FaceConfigStore instance;
+
+    // Serial, so writes land on disk in the order they were made.
+    private final Executor writeExecutor = BackgroundExecutor.newSerialExecutor();
+    private final List<Listener> listeners = new ArrayList<>();
+    private final AtomicFile file;
+    private volatile int flags;
+    private volatile int shadowQuality = ArcComplication.DEFAULT_SHADOW_QUALITY;
+
+    private FaceConfigStore(Context context) {
+        file = new AtomicFile(new File(context.getFilesDir(), FILE_NAME));
+        read();
+    }
+
+    public static synchronized FaceConfigStore get(Context context) {
+        if (instance == null) {
+            instance = new FaceConfigStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public boolean isHollowMode() {
+        return (flags & FLAG_HOLLOW) != 0;
+    }
+
+    public void setHollowMode(boolean hollow) {
+        setFlag(FLAG_HOLLOW, hollow);
+    }
+
+    public boolean isDebugOverlayEnabled() {
+        return (flags & FLAG_DEBUG_OVERLAY) != 0;
+    }
+
+    public void setDebugOverlayEnabled(boolean enabled) {
+        setFlag(FLAG_DEBUG_OVERLAY, enabled);
+    }
+
+    public boolean isIconThemeMode() {
+        return (flags & FLAG_ICON_THEME) != 0;
+    }
+
+    public void setIconThemeMode(boolean iconTheme) {
+        setFlag(FLAG_ICON_THEME, iconTheme);
+    }
+
+    /**
+     * Returns how the shadows of the arcs are drawn, see {@link ArcComplication#SHADOW_BAKED}.
+     */
+    public int getShadowQuality() {
+        return shadowQuality;
+    }
+
+    public void setShadowQuality(int shadowQuality) {
+        if (shadowQuality == this.shadowQuality) {
+            return;
+        }
+        this.shadowQuality = shadowQuality;
+        onChanged();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void setFlag(int flag, boolean set) {
+        int newFlags = set ? flags | flag : flags & ~flag;
+        if (newFlags == flags) {
+            return;
+        }
+        flags = newFlags;
+        onChanged();
+    }
+
+    private void onChanged() {
+        write(flags, shadowQuality);
+
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onConfigChanged(this);
+        }
+    }
+
+    private void read() {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(file.openRead());
+            int version = in.readByte();
+            if (version < 1 || version > VERSION) {
+                return;
+            }
+            int readFlags = in.readInt();
+            int readShadowQuality = version >= 2 ? in.readByte() : shadowQuality;
+            if (!isValidShadowQuality(readShadowQuality)) {
+                Log.w(TAG, "Unknown shadow quality " + readShadowQuality + ", using the defaults");
+                return;
+            }
+            flags = readFlags;
+            shadowQuality = readShadowQuality;
+        } catch (FileNotFoundException e) {
+            // Nothing configured yet.
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read the face config, using the defaults", e);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static boolean isValidShadowQuality(int shadowQuality) {
+        return shadowQuality == ArcComplication.SHADOW_NONE
+                || shadowQuality == ArcComplication.SHADOW_BAKED
+                || shadowQuality == ArcComplication.SHADOW_LIVE;
+    }
+
+    private void write(final int flags, final int shadowQuality) {
+        writeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                FileOutputStream out = null;
+                try {
+                    out = file.startWrite();
+                    DataOutputStream data = new DataOutputStream(out);
+                    data.writeByte(VERSION);
+                    data.writeInt(flags);
+                    data.writeByte(shadowQuality);
+                    data.flush();
+                    file.finishWrite(out);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not write the face config", e);
+                    if (out != null) {
+                        file.failWrite(out);
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.os.Looper;
+import android.support.wearable.complications.ComplicationData;
+
+import com.example.pizzawatchface.core.Clock;
+import com.example.pizzawatchface.core.FaceGeometry;
+import com.example.pizzawatchface.core.FramePacer;
+import com.example.pizzawatchface.core.FrameStats;
+import com.example.pizzawatchface.core.GeometryCache;
+import com.example.pizzawatchface.core.PolarHitIndex;
+import com.example.pizzawatchface.core.QualityGovernor;
+import com.example.pizzawatchface.core.SlotLayout;
+import com.example.pizzawatchface.core.UpdateCoalescer;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.example.pizzawatchface.Constants.*;
+
+/**
+ * What {@link PizzaWatchFaceService.Engine} does between the system callbacks and the canvas:
+ * drawing frames, deciding when the next one is due and arming the timer for it, handling the
+ * minute tick, resolving taps and tuning the render quality. It doesn't depend on the wallpaper
+ * service, so a replay can drive it offscreen with a simulated clock and host.
+ * <p>
+ * Confined to the thread of the looper it is created with, like the {@link FaceRenderer}.
+ */
+public class FaceDriver {
+
+    /**
+     * What the driver needs from the surface it draws on.
+     */
+    public interface Host {
+        /**
+         * Asks for a frame, drawn with {@link #draw(Canvas)} as soon as possible.
+         */
+        void invalidate();
+    }
+
+    private final Clock mClock;
+    private final Host mHost;
+
+    // Draws the face, shared with the preview of the config screen.
+    private final FaceRenderer mRenderer;
+
+    // Layout of the face for the current surface, resolved once per surface size and shape.
+    private final GeometryCache mGeometryCache = new GeometryCache(SlotLayout.PIZZA);
+    private boolean mIsRound;
+
+    // Resolves taps to slots, including the arcs of the ranged complications.
+    private final PolarHitIndex mHitIndex = new PolarHitIndex();
+
+    // Decides when the next interactive frame is needed, and wakes the face up for it.
+    private final RedrawScheduler mRedrawScheduler = new RedrawScheduler();
+    private final RedrawTimer mRedrawTimer;
+
+    // Frame time histograms per phase and mode, optionally drawn on the face in debug builds.
+    private final FrameStats mFrameStats;
+    private final FrameStatsOverlay mFrameStatsOverlay = new FrameStatsOverlay();
+
+    // Lowers the render quality when interactive frames go over budget. The budget leaves
+    // room for the rest of the system within a 60 Hz frame.
+    private final QualityGovernor mQualityGovernor =
+            new QualityGovernor(TimeUnit.MILLISECONDS.toNanos(12));
+    private boolean mDebugOverlayEnabled;
+
+    // Draws any number of complication updates within the minimum interval of the mode in one
+    // frame, the intervals come from the resources, see setMinUpdateInterval.
+    private final UpdateCoalescer mUpdateCoalescer;
+
+    private boolean mVisible;
+
+    public FaceDriver(Context context, Looper looper, Clock clock, Host host) {
+        mClock = clock;
+        mHost = host;
+        mFrameStats = new FrameStats(clock);
+        mRedrawTimer = new RedrawTimer(looper, clock, new Runnable() {
+            @Override
+            public void run() {
+                mHost.invalidate();
+            }
+        });
+        mUpdateCoalescer = new UpdateCoalescer(FramePacer.MIN_FRAME_INTERVAL_MS, 0);
+        Resources resources = context.getResources();
+        setMinUpdateInterval(false,
+                resources.getInteger(R.integer.min_update_interval_interactive_ms));
+        setMinUpdateInterval(true, resources.getInteger(R.integer.min_update_interval_ambient_ms));
+        mRenderer = new FaceRenderer(context, looper, clock, mFrameStats,
+                new FaceRenderer.Callback() {
+                    @Override
+                    public void onInvalidate() {
+                        long now = mClock.currentTimeMillis();
+                        requestFrameAt(mUpdateCoalescer.requestFrame(now), now);
+                    }
+                });
+    }
+
+    public FaceRenderer getRenderer() {
+        return mRenderer;
+    }
+
+    public FrameStats getFrameStats() {
+        return mFrameStats;
+    }
+
+    public UpdateCoalescer getUpdateCoalescer() {
+        return mUpdateCoalescer;
+    }
+
+    RedrawTimer getRedrawTimer() {
+        return mRedrawTimer;
+    }
+
+    /**
+     * Sets the minimum time between the frames drawn for complication updates in the mode.
+     * Interactive frames are never closer than {@link FramePacer#MIN_FRAME_INTERVAL_MS}.
+     */
+    public void setMinUpdateInterval(boolean ambient, long intervalMillis) {
+        if (!ambient) {
+            intervalMillis = Math.max(FramePacer.MIN_FRAME_INTERVAL_MS, intervalMillis);
+        }
+        mUpdateCoalescer.setMinInterval(ambient, intervalMillis);
+    }
+
+    /**
+     * Hands the data to the renderer. The frame is asked for once the renderer published a
+     * snapshot with it, coalesced with the other updates of the interval.
+     */
+    public void setComplicationData(int complicationId, ComplicationData complicationData) {
+        mRenderer.setComplicationData(complicationId, complicationData);
+        mUpdateCoalescer.onUpdate();
+    }
+
+    public void setAmbientMode(boolean ambientMode) {
+        mRenderer.setAmbientMode(ambientMode);
+        mUpdateCoalescer.setAmbient(ambientMode);
+        mHost.invalidate();
+
+        // Check and trigger whether or not timer should be running (only in active mode).
+        updateTimer();
+    }
+
+    public void setVisible(boolean visible) {
+        mVisible = visible;
+        if (visible) {
+            mHost.invalidate();
+        }
+        updateTimer();
+    }
+
+    public void setRound(boolean isRound) {
+        mIsRound = isRound;
+        FaceGeometry geometry = mRenderer.getGeometry();
+        if (geometry != null) {
+            setGeometry(mGeometryCache.get(geometry.width, geometry.height, mIsRound));
+        }
+    }
+
+    public void setSurfaceSize(int width, int height) {
+        setGeometry(mGeometryCache.get(width, height, mIsRound));
+    }
+
+    private void setGeometry(FaceGeometry geometry) {
+        if (mRenderer.setGeometry(geometry)) {
+            mHost.invalidate();
+        }
+    }
+
+    /**
+     * Returns the slot at the given point, or -1. The index is brought up to date on every
+     * frame, and a frame is drawn whenever a complication becomes active or inactive.
+     */
+    public int getTappedComplicationId(int x, int y) {
+        return mHitIndex.slotAt(x, y);
+    }
+
+    /**
+     * Shows or hides the frame time overlay, only available in debug builds.
+     */
+    public void setDebugOverlayEnabled(boolean enabled) {
+        boolean wasEnabled = mDebugOverlayEnabled;
+        mDebugOverlayEnabled = BuildConfig.DEBUG && enabled;
+        if (mDebugOverlayEnabled && !wasEnabled) {
+            mFrameStats.reset();
+            mUpdateCoalescer.resetCounters();
+        }
+    }
+
+    public void draw(Canvas canvas) {
+        long now = mClock.currentTimeMillis();
+        mFrameStats.beginFrame(getFrameStatsMode(), now);
+        mRedrawScheduler.begin(now);
+
+        mRenderer.draw(canvas, now);
+        mUpdateCoalescer.onFrameDrawn(now);
+        updateHitIndex(now);
+
+        scheduleNextRedraw();
+        long frameNanos = mFrameStats.endFrame();
+        if (!mRenderer.isAmbientMode() && mQualityGovernor.record(frameNanos)) {
+            mRenderer.setQualityTier(mQualityGovernor.getTier());
+        }
+
+        if (mDebugOverlayEnabled) {
+            FaceGeometry geometry = mRenderer.getGeometry();
+            mFrameStatsOverlay.draw(canvas, mFrameStats, mUpdateCoalescer, now, geometry.centerX,
+                    geometry.centerY + geometry.complicationMargin * 4, geometry.width / 20f);
+        }
+    }
+
+    /**
+     * Draws the minute tick. In ambient mode, if a text changed by the tick, the frame is drawn
+     * once the renderer published it instead, so the tick costs one frame.
+     */
+    public void onTimeTick() {
+        if (mRenderer.isAmbientMode() && mRenderer.onTimeTick()) {
+            return;
+        }
+        mHost.invalidate();
+    }
+
+    public void release() {
+        mRedrawTimer.cancel();
+        mRenderer.release();
+    }
+
+    /*
+     * Draws a frame at the time the coalescer returned: right away, or with the redraw timer if
+     * it doesn't fire earlier anyway. Nothing is armed while the face isn't visible, it is
+     * drawn once it is.
+     */
+    private void requestFrameAt(long frameTime, long currentTimeMillis) {
+        if (frameTime == UpdateCoalescer.NO_FRAME) {
+            return;
+        }
+        if (frameTime <= currentTimeMillis) {
+            mHost.invalidate();
+        } else if (mVisible && frameTime < mRedrawTimer.getTime()) {
+            mRedrawTimer.schedule(frameTime);
+        }
+    }
+
+    private int getFrameStatsMode() {
+        if (mRenderer.isAmbientMode()) {
+            return FrameStats.MODE_AMBIENT;
+        }
+        return mRenderer.isHollowMode() ? FrameStats.MODE_HOLLOW : FrameStats.MODE_INTERACTIVE;
+    }
+
+    /*
+     * Keeps the hit-test index in sync with the layout and the complications that can be
+     * tapped. The index is only rebuilt when one of them changed.
+     */
+    private void updateHitIndex(long currentTimeMillis) {
+        ComplicationData complicationData;
+        int activeMask = 0;
+
+        for (int i = 0; i < COMPLICATION_IDS.length; i++) {
+            complicationData = mRenderer.getComplicationData(i);
+
+            if ((complicationData != null)
+                    && (complicationData.isActive(currentTimeMillis))
+                    && (complicationData.getType() != ComplicationData.TYPE_NOT_CONFIGURED)
+                    && (complicationData.getType() != ComplicationData.TYPE_EMPTY)) {
+                activeMask |= 1 << i;
+            }
+        }
+        mHitIndex.update(mRenderer.getGeometry(), activeMask);
+    }
+
+    /*
+     * Arms the timer for the next frame the face needs: the next minute, the next frame of a
+     * running animation or the next time a complication becomes active or inactive. Once the
+     * animations settle the face is back to one frame a minute. Text changes are published by
+     * the ingester of the renderer, which invalidates the face itself.
+     */
+    private void scheduleNextRedraw() {
+        mRedrawScheduler.requestRedrawAt(mRenderer.getNextAnimationFrameTime());
+        for (int i = 0; i < COMPLICATION_IDS.length; i++) {
+            mRedrawScheduler.requestActivationChange(mRenderer.getComplicationData(i));
+        }
+
+        if (shouldTimerBeRunning()) {
+            mRedrawTimer.schedule(mRedrawScheduler.getNextRedrawTime());
+        } else {
+            mRedrawTimer.cancel();
+        }
+    }
+
+    /*
+     * Starts/stops the redraw timer based on the state of the watch face.
+     */
+    private void updateTimer() {
+        if (shouldTimerBeRunning()) {
+            mRedrawTimer.schedule(mClock.currentTimeMillis());
+        } else {
+            mRedrawTimer.cancel();
+        }
+    }
+
+    /*
+     * Returns whether the redraw timer should be running. The timer should only run in active
+     * mode.
+     */
+    private boolean shouldTimerBeRunning() {
+        return mVisible && !mRenderer.isAmbientMode();
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+import android.support.wearable.complications.ComplicationData;
+import android.view.View;
+import android.widget.ImageView;
+
+import com.example.pizzawatchface.core.Clock;
+import com.example.pizzawatchface.core.FaceGeometry;
+import com.example.pizzawatchface.core.FrameStats;
+import com.example.pizzawatchface.core.GeometryCache;
+import com.example.pizzawatchface.core.SlotLayout;
+
+import static com.example.pizzawatchface.Constants.COMPLICATION_IDS;
+
+/**
+ * Live miniature of the face for the config screen, drawn by a {@link FaceRenderer} on its own
+ * render thread and shown in an {@link ImageView}.
+ * <p>
+ * Changes are forwarded to the render thread and coalesced: a frame is rendered
+ * {@link #DEBOUNCE_MS} after the last change, so flipping a setting repeatedly renders once and
+ * never blocks the UI thread. Frames are rendered into a spare bitmap and handed to the view, the
+ * bitmap on screen is only reused once the view has let go of it.
+ * <p>
+ * The public methods must be called on the main thread.
+ */
+public class FacePreview {
+    private static final long DEBOUNCE_MS = 100;
+    private static final int MSG_RENDER = 0;
+
+    private final Context mContext;
+    private final ImageView mView;
+    private final HandlerThread mRenderThread;
+    private final Handler mRenderHandler;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final GeometryCache mGeometryCache = new GeometryCache(SlotLayout.PIZZA);
+
+    // Only accessed from the render thread.
+    private FaceRenderer mRenderer;
+    private final Canvas mCanvas = new Canvas();
+    private Bitmap mSpareBitmap;
+
+    // Only accessed from the main thread.
+    private Bitmap mShownBitmap;
+
+    private final View.OnLayoutChangeListener mLayoutListener = new View.OnLayoutChangeListener() {
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            if (right - left != oldRight - oldLeft || bottom - top != oldBottom - oldTop) {
+                setSize(right - left, bottom - top);
+            }
+        }
+    };
+
+    public FacePreview(Context context, ImageView view) {
+        mContext = context.getApplicationContext();
+        mView = view;
+
+        mRenderThread = new HandlerThread("FacePreview", Process.THREAD_PRIORITY_BACKGROUND);
+        mRenderThread.start();
+        mRenderHandler = new Handler(mRenderThread.getLooper(), new Handler.Callback() {
+            @Override
+            public boolean handleMessage(Message msg) {
+                if (msg.what == MSG_RENDER) {
+                    render();
+                    return true;
+                }
+                return false;
+            }
+        });
+
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                // Frame stats of the preview are not shown anywhere.
+                mRenderer = new FaceRenderer(mContext, mRenderThread.getLooper(), Clock.SYSTEM,
+                        new FrameStats(), new FaceRenderer.Callback() {
+                            @Override
+                            public void onInvalidate() {
+                                requestRender();
+                            }
+                        });
+            }
+        });
+
+        ComplicationDataRepository repository = ComplicationDataRepository.get();
+        for (int i = 0; i < COMPLICATION_IDS.length; i++) {
+            setComplicationData(i, repository.getComplicationData(i));
+        }
+
+        mView.addOnLayoutChangeListener(mLayoutListener);
+        if (mView.getWidth() > 0 && mView.getHeight() > 0) {
+            setSize(mView.getWidth(), mView.getHeight());
+        }
+    }
+
+    public void setHollowMode(final boolean hollow) {
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mRenderer.setHollowMode(hollow);
+                requestRender();
+            }
+        });
+    }
+
+    public void setIconThemeMode(final boolean iconTheme) {
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mRenderer.setIconThemeMode(iconTheme);
+                requestRender();
+            }
+        });
+    }
+
+    public void setShadowQuality(final int shadowQuality) {
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mRenderer.setShadowQuality(shadowQuality);
+                requestRender();
+            }
+        });
+    }
+
+    public void setComplicationData(final int complicationId, final ComplicationData data) {
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mRenderer.setComplicationData(complicationId, data);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * Stops the render thread and releases the bitmaps.
+     */
+    public void release() {
+        mView.removeOnLayoutChangeListener(mLayoutListener);
+        mRenderHandler.removeMessages(MSG_RENDER);
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (mRenderer != null) {
+                    mRenderer.release();
+                }
+                if (mSpareBitmap != null) {
+                    mSpareBitmap.recycle();
+                    mSpareBitmap = null;
+                }
+            }
+        });
+        mRenderThread.quitSafely();
+        mMainHandler.removeCallbacksAndMessages(null);
+    }
+
+    private void setSize(int width, int height) {
+        // The preview is the size of the view, which is square and round like the face.
+        final FaceGeometry geometry = mGeometryCache.get(width, height, true);
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (mRenderer.setGeometry(geometry)) {
+                    requestRender();
+                }
+            }
+        });
+    }
+
+    // Called on the render thread.
+    private void requestRender() {
+        mRenderHandler.removeMessages(MSG_RENDER);
+        mRenderHandler.sendEmptyMessageDelayed(MSG_RENDER, DEBOUNCE_MS);
+    }
+
+    // Called on the render thread.
+    private void render() {
+        FaceGeometry geometry = mRenderer.getGeometry();
+        if (geometry == null) {
+            return;
+        }
+
+        Bitmap bitmap = mSpareBitmap;
+        mSpareBitmap = null;
+        if (bitmap == null || bitmap.getWidth() != geometry.width
+                || bitmap.getHeight() != geometry.height) {
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+            bitmap = Bitmap.createBitmap(geometry.width, geometry.height,
+                    Bitmap.Config.ARGB_8888);
+        }
+        long now = System.currentTimeMillis();
+        mCanvas.setBitmap(bitmap);
+        mRenderer.draw(mCanvas, now);
+        mCanvas.setBitmap(null);
+
+        // Animation frames follow the pace of the renderer, not the debounce of changes.
+        long nextFrameTime = mRenderer.getNextAnimationFrameTime();
+        if (nextFrameTime != Long.MAX_VALUE) {
+            mRenderHandler.sendEmptyMessageDelayed(MSG_RENDER, nextFrameTime - now);
+        }
+
+        final Bitmap rendered = bitmap;
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap previous = mShownBitmap;
+                mShownBitmap = rendered;
+                mView.setImageBitmap(rendered);
+                if (previous != null) {
+                    mRenderHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            recycleOrKeep(previous);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    // Called on the render thread with a bitmap the view no longer shows.
+    private void recycleOrKeep(Bitmap bitmap) {
+        if (mSpareBitmap == null) {
+            mSpareBitmap = bitmap;
+        } else {
+            bitmap.recycle();
+        }
+    }
+}
@@ -0,0 +1,747 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Icon;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.rendering.ComplicationDrawable;
+
+import androidx.core.content.ContextCompat;
+
+import com.example.pizzawatchface.core.Box;
+import com.example.pizzawatchface.core.BurnInOrbit;
+import com.example.pizzawatchface.core.Clock;
+import com.example.pizzawatchface.core.FaceGeometry;
+import com.example.pizzawatchface.core.FramePacer;
+import com.example.pizzawatchface.core.FrameStats;
+import com.example.pizzawatchface.core.QualityGovernor;
+import com.example.pizzawatchface.core.ValueAnimation;
+
+import static com.example.pizzawatchface.Constants.*;
+
+/**
+ * Draws the face: background, dividers, complications, center text and arcs, each a
+ * {@link RenderNode} of a {@link Compositor} that keeps the retained ones in layers, and the
+ * ambient frame cache on top. {@link FaceDriver} draws it on the watch face surface and
+ * {@link FacePreview} into a bitmap for the config screen.
+ * <p>
+ * A renderer is confined to the thread of the looper it is created with: every method must be
+ * called there, and the callback is invoked there.
+ */
+public class FaceRenderer {
+
+    /**
+     * Notified when something the renderer loads in the background is ready to be drawn.
+     */
+    public interface Callback {
+        void onInvalidate();
+    }
+
+    private final Callback mCallback;
+    private final Clock mClock;
+    private final FrameStats mFrameStats;
+
+    // The center text paint of every render mode, see ArcPaints#mode, and the current one.
+    private Paint[] mCenterPaints;
+    private Paint mCenterPaint;
+    private final Paint mBackgroundPaint;
+    private final BackgroundDividerDrawable mBackgroundDividerDrawable;
+
+    private FaceGeometry mGeometry;
+    private float mCenterX;
+    private float mCenterY;
+    private float mComplicationMargin;
+    private int mSurfaceWidth;
+    private int mSurfaceHeight;
+    private final Rect mSurfaceBounds = new Rect();
+    // Where the ComplicationDrawables draw, all slots but the center.
+    private final Rect mComplicationBounds = new Rect();
+
+    // The nodes of the face, bottom to top. Only the arcs are invalidated from here by node.
+    private final Compositor mCompositor;
+    private final ArcTrackNode[] mTrackNodes = new ArcTrackNode[RANGE_COMPLICATION_COUNT];
+    private final ArcNode[] mArcNodes = new ArcNode[RANGE_COMPLICATION_COUNT];
+
+    // The last ambient frame, a minute tick only redraws the regions that changed.
+    private final AmbientFrameCache mAmbientFrameCache = new AmbientFrameCache();
+    private final AmbientFrameCache.FrameRenderer mAmbientFrameRenderer =
+            new AmbientFrameCache.FrameRenderer() {
+                @Override
+                public void drawFrame(Canvas canvas, Rect dirty) {
+                    FaceRenderer.this.drawFrame(canvas, dirty);
+                }
+            };
+    // Where the center text can be drawn: the center slot, widened since the text may not fit.
+    private final Rect mCenterTextBounds = new Rect();
+
+    // Builds the snapshots drawn below off this thread, from the data set on it.
+    private final ComplicationIngester mIngester;
+    // The snapshot the last frame was drawn from.
+    private FaceSnapshot mSnapshot = FaceSnapshot.EMPTY;
+
+    // Colors of the arcs from the resources, replaced by the icon theme when it is on.
+    private final int[] mDefaultPrimaryColors = new int[RANGE_COMPLICATION_COUNT];
+    private final int[] mDefaultSecondaryColors = new int[RANGE_COMPLICATION_COUNT];
+    private final PaletteThemeCache mThemeCache;
+    private final Handler mThemeHandler;
+    // The icon each arc took its theme from, or is waiting for.
+    private final Icon[] mThemeIcons = new Icon[RANGE_COMPLICATION_COUNT];
+    private boolean mIconThemeMode;
+    private final PaletteThemeCache.Callback mThemeCallback = new PaletteThemeCache.Callback() {
+        @Override
+        public void onThemeExtracted(Icon icon, PaletteThemeCache.Theme theme) {
+            for (int i = 0; i < mThemeIcons.length; i++) {
+                // Results for icons that were replaced in the meantime are dropped.
+                if (mIconThemeMode && mThemeIcons[i] == icon) {
+                    applyTheme(i, theme);
+                }
+            }
+        }
+    };
+
+    private final ComplicationDrawable[] mComplicationDrawables =
+            new ComplicationDrawable[COMPLICATION_IDS.length];
+    private final ArcComplication[] mRangedComplications =
+            new ArcComplication[RANGE_COMPLICATION_COUNT];
+    // Progress shown by each arc, eased towards the value of its slot after an update.
+    private final ValueAnimation[] mArcAnimations = new ValueAnimation[RANGE_COMPLICATION_COUNT];
+    // Frame rate and length of the arc animations, from the cost of the interactive frames.
+    private final FramePacer mFramePacer = new FramePacer();
+    private final ComplicationData[] mComplicationData =
+            new ComplicationData[COMPLICATION_IDS.length];
+
+    private boolean mAmbientMode;
+    private boolean mHollowMode;
+    private boolean mLowBitAmbient;
+    private boolean mBurnInProtection;
+    private int mQualityTier = QualityGovernor.TIER_FULL;
+    private int mShadowQuality = ArcComplication.DEFAULT_SHADOW_QUALITY;
+    private long mFrameTimeMillis;
+
+    /**
+     * @param clock the clock frame costs are measured with, see {@link FramePacer}. The frame
+     *              time itself is passed to {@link #draw(Canvas, long)}.
+     */
+    public FaceRenderer(Context context, Looper looper, Clock clock, FrameStats frameStats,
+                        Callback callback) {
+        mCallback = callback;
+        mClock = clock;
+        mFrameStats = frameStats;
+
+        mBackgroundPaint = new Paint();
+        mBackgroundPaint.setColor(Color.BLACK);
+
+        mCenterPaints = createCenterPaints(0);
+        mCenterPaint = mCenterPaints[0];
+
+        mBackgroundDividerDrawable = new BackgroundDividerDrawable();
+
+        for (int i = 0; i < COMPLICATION_IDS.length; i++) {
+            ComplicationDrawable complicationDrawable =
+                    (ComplicationDrawable) context.getDrawable(R.drawable.custom_complication_styles);
+            if (complicationDrawable != null) {
+                complicationDrawable.setContext(context);
+                mComplicationDrawables[i] = complicationDrawable;
+            }
+        }
+
+        //Order matters when we add the complication in the array because we iterate clockwise
+        int[] primaryColors = {R.color.purple, R.color.yellow, R.color.red, R.color.green};
+        int[] secondaryColors = {R.color.light_purple, R.color.light_yellow, R.color.light_red,
+                R.color.light_green};
+
+        // The arcs live as long as the renderer, surface changes only move them.
+        for (int i = 0; i < mRangedComplications.length; i++) {
+            mDefaultPrimaryColors[i] = ContextCompat.getColor(context, primaryColors[i]);
+            mDefaultSecondaryColors[i] = ContextCompat.getColor(context, secondaryColors[i]);
+            mRangedComplications[i] = new ArcComplication(mDefaultPrimaryColors[i],
+                    mDefaultSecondaryColors[i]);
+            mArcAnimations[i] = new ValueAnimation();
+        }
+        mThemeCache = PaletteThemeCache.get(context);
+        mThemeHandler = new Handler(looper);
+
+        mCompositor = new Compositor(frameStats, new Compositor.Listener() {
+            @Override
+            public void onRegionInvalidated(Rect bounds) {
+                mAmbientFrameCache.invalidate(bounds);
+            }
+        });
+        mCompositor.add(new BackgroundNode());
+        mCompositor.add(new DividerNode());
+        for (int i = 0; i < mTrackNodes.length; i++) {
+            mTrackNodes[i] = new ArcTrackNode(i);
+            mCompositor.add(mTrackNodes[i]);
+        }
+        mCompositor.add(new CenterTextNode());
+        mCompositor.add(new ComplicationsNode());
+        for (int i = 0; i < mArcNodes.length; i++) {
+            mArcNodes[i] = new ArcNode(i);
+            mCompositor.add(mArcNodes[i]);
+        }
+
+        mIngester = new ComplicationIngester(context, looper, clock, mRangedComplications,
+                new ComplicationIngester.Listener() {
+                    @Override
+                    public void onSnapshotPublished() {
+                        mCallback.onInvalidate();
+                    }
+                });
+    }
+
+    public FaceGeometry getGeometry() {
+        return mGeometry;
+    }
+
+    /**
+     * Moves everything drawn on the face to a new layout. The geometry is memoized, so getting
+     * the same instance back means nothing moved and there is nothing to do.
+     *
+     * @return true if the layout changed.
+     */
+    public boolean setGeometry(FaceGeometry geometry) {
+        if (geometry == mGeometry) {
+            return false;
+        }
+        mGeometry = geometry;
+
+        mCenterX = geometry.centerX;
+        mCenterY = geometry.centerY;
+        mSurfaceWidth = geometry.width;
+        mSurfaceHeight = geometry.height;
+        mSurfaceBounds.set(0, 0, geometry.width, geometry.height);
+        mAmbientFrameCache.invalidate();
+
+        mBackgroundDividerDrawable.setGeometry(geometry);
+
+        mComplicationMargin = geometry.complicationMargin;
+        mCenterPaints = createCenterPaints(geometry.centerTextSize);
+        updatePaintMode();
+
+        mComplicationBounds.setEmpty();
+        for (int i = 0; i <= CENTER_COMPLICATION_ID; i++) {
+            Box slotBounds = geometry.getSlotBounds(i);
+            mComplicationDrawables[i].setBounds(slotBounds.left, slotBounds.top,
+                    slotBounds.right, slotBounds.bottom);
+            if (i < CENTER_COMPLICATION_ID) {
+                mComplicationBounds.union(slotBounds.left, slotBounds.top, slotBounds.right,
+                        slotBounds.bottom);
+            }
+        }
+        Box centerBounds = geometry.getSlotBounds(CENTER_COMPLICATION_ID);
+        mCenterTextBounds.set(0, centerBounds.top, geometry.width, centerBounds.bottom);
+
+        for (int i = 0; i < mRangedComplications.length; i++) {
+            mRangedComplications[i].setGeometry(geometry, i);
+        }
+        mCompositor.invalidate(RenderNode.INVALIDATED_BY_LAYOUT);
+        // The arc texts and icons depend on the surface, they are built again for it.
+        mIngester.setGeometry(geometry);
+        return true;
+    }
+
+    public ComplicationData getComplicationData(int complicationId) {
+        return mComplicationData[complicationId];
+    }
+
+    public void setComplicationData(int complicationId, ComplicationData complicationData) {
+        // Adds/updates active complication data in the array.
+        mComplicationData[complicationId] = complicationData;
+
+        // Updates correct ComplicationDrawable with updated data. The drawable is confined to
+        // this thread, everything else is drawn from the snapshots of the ingester.
+        mComplicationDrawables[complicationId].setComplicationData(complicationData);
+        mIngester.setComplicationData(complicationId, complicationData);
+    }
+
+    public boolean isAmbientMode() {
+        return mAmbientMode;
+    }
+
+    public void setAmbientMode(boolean ambientMode) {
+        mAmbientMode = ambientMode;
+        updatePaintMode();
+
+        // Update drawable complications' ambient state.
+        // Note: ComplicationDrawable handles switching between active/ambient colors, we just
+        // have to inform it to enter ambient mode.
+        for (ComplicationDrawable complicationDrawable : mComplicationDrawables) {
+            complicationDrawable.setInAmbientMode(ambientMode);
+        }
+
+        for (ArcComplication rangedComplication : mRangedComplications) {
+            rangedComplication.setAmbientMode(ambientMode);
+        }
+        // Ambient frames are not animated, the arcs settle on their values.
+        if (ambientMode) {
+            for (ValueAnimation animation : mArcAnimations) {
+                animation.jumpTo(animation.getTarget());
+            }
+        }
+        // Whatever changed while interactive, the first ambient frame is drawn from scratch.
+        mAmbientFrameCache.invalidate();
+        mIngester.setAmbientMode(ambientMode);
+    }
+
+    public boolean isHollowMode() {
+        return mHollowMode;
+    }
+
+    public void setHollowMode(boolean hollowMode) {
+        mHollowMode = hollowMode;
+        updatePaintMode();
+    }
+
+    public int getQualityTier() {
+        return mQualityTier;
+    }
+
+    /**
+     * Sets how much of the costly detail is drawn, one of the tiers of {@link QualityGovernor}.
+     */
+    public void setQualityTier(int qualityTier) {
+        if (qualityTier == mQualityTier) {
+            return;
+        }
+        mQualityTier = qualityTier;
+        for (ArcComplication rangedComplication : mRangedComplications) {
+            rangedComplication.setQuality(qualityTier < QualityGovernor.TIER_NO_SHADOWS,
+                    qualityTier < QualityGovernor.TIER_NO_ANTI_ALIAS);
+        }
+        mCompositor.invalidate(RenderNode.INVALIDATED_BY_MODE);
+    }
+
+    /**
+     * Sets how the shadows of the arcs are drawn, see {@link ArcComplication#SHADOW_BAKED}.
+     */
+    public void setShadowQuality(int shadowQuality) {
+        if (shadowQuality == mShadowQuality) {
+            return;
+        }
+        mShadowQuality = shadowQuality;
+        for (ArcComplication rangedComplication : mRangedComplications) {
+            rangedComplication.setShadowQuality(shadowQuality);
+        }
+        mCompositor.invalidate(RenderNode.INVALIDATED_BY_MODE);
+    }
+
+    public boolean isIconThemeMode() {
+        return mIconThemeMode;
+    }
+
+    /**
+     * Turns the icon theme on or off: each arc takes its colors from the icon of its
+     * complication, extracted in the background by {@link PaletteThemeCache}.
+     */
+    public void setIconThemeMode(boolean iconThemeMode) {
+        if (iconThemeMode == mIconThemeMode) {
+            return;
+        }
+        mIconThemeMode = iconThemeMode;
+        for (int i = 0; i < mRangedComplications.length; i++) {
+            mThemeIcons[i] = null;
+            if (iconThemeMode) {
+                requestTheme(i, mSnapshot.getSlot(i + RANGED_ID_OFFSET));
+            } else {
+                applyTheme(i, null);
+            }
+        }
+    }
+
+    public void setDisplayProperties(boolean lowBitAmbient, boolean burnInProtection) {
+        mLowBitAmbient = lowBitAmbient;
+        mBurnInProtection = burnInProtection;
+
+        for (ComplicationDrawable complicationDrawable : mComplicationDrawables) {
+            complicationDrawable.setLowBitAmbient(lowBitAmbient);
+            complicationDrawable.setBurnInProtection(burnInProtection);
+        }
+
+        for (ArcComplication rangedComplication : mRangedComplications) {
+            rangedComplication.setLowBitAmbient(lowBitAmbient);
+        }
+        mIngester.setBurnInProtection(burnInProtection);
+        updatePaintMode();
+    }
+
+    /**
+     * Returns when the next animation frame is due, or {@link Long#MAX_VALUE} if nothing is
+     * animating. Only valid after {@link #draw(Canvas, long)}.
+     */
+    public long getNextAnimationFrameTime() {
+        for (ValueAnimation animation : mArcAnimations) {
+            if (animation.isRunning(mFrameTimeMillis)) {
+                return mFrameTimeMillis + mFramePacer.getFrameIntervalMillis();
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns when the ingester publishes the next text change by itself, see
+     * {@link ComplicationIngester#getNextPublishTime()}.
+     */
+    public long getNextSnapshotTime() {
+        return mIngester.getNextPublishTime();
+    }
+
+    /**
+     * Has the ingester publish the texts that changed by the minute tick, see
+     * {@link ComplicationIngester#onTimeTick()}.
+     *
+     * @return true if a text changed, a frame is asked for once it is published.
+     */
+    public boolean onTimeTick() {
+        return mIngester.onTimeTick();
+    }
+
+    /**
+     * Waits for the ingester to publish, see {@link ComplicationIngester#awaitPublish()}.
+     */
+    public void awaitSnapshot() {
+        mIngester.awaitPublish();
+    }
+
+    /**
+     * Draws a frame for the given time. Requires a geometry.
+     */
+    public void draw(Canvas canvas, long currentTimeMillis) {
+        long startNanos = mClock.nanoTime();
+        mFrameTimeMillis = currentTimeMillis;
+        updateSnapshot();
+
+        if (mAmbientMode) {
+            // On burn-in screens the cached frame orbits, nothing is drawn again for it.
+            int orbitStep = BurnInOrbit.step(currentTimeMillis);
+            int offsetX = mBurnInProtection ? BurnInOrbit.offsetX(orbitStep) : 0;
+            int offsetY = mBurnInProtection ? BurnInOrbit.offsetY(orbitStep) : 0;
+            mAmbientFrameCache.draw(canvas, mSurfaceWidth, mSurfaceHeight, offsetX, offsetY,
+                    mAmbientFrameRenderer);
+        } else {
+            drawFrame(canvas, null);
+            mFramePacer.record(mClock.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Releases the cached bitmaps and stops the ingester. The renderer can't be used afterwards.
+     */
+    public void release() {
+        mCompositor.release();
+        mAmbientFrameCache.clear();
+        // Themes still being extracted are dropped when they arrive.
+        mIconThemeMode = false;
+        mThemeHandler.removeCallbacksAndMessages(null);
+        for (ArcComplication rangedComplication : mRangedComplications) {
+            rangedComplication.release();
+        }
+        mIngester.release();
+    }
+
+    /*
+     * Strokes are thinned to outlines in hollow mode, and in ambient mode on screens with
+     * burn-in protection, where wide lit strokes wear the panel.
+     */
+    private boolean isOutlineMode() {
+        return mHollowMode || (mAmbientMode && mBurnInProtection);
+    }
+
+    /*
+     * Switches to the paints of the current mode. The paints of every mode are built up front,
+     * so this only swaps references.
+     */
+    private void updatePaintMode() {
+        boolean outline = isOutlineMode();
+        mCenterPaint = mCenterPaints[ArcPaints.mode(mAmbientMode, outline, mLowBitAmbient)];
+        for (ArcComplication rangedComplication : mRangedComplications) {
+            rangedComplication.setHollow(outline);
+        }
+        mCompositor.invalidate(RenderNode.INVALIDATED_BY_MODE);
+    }
+
+    // Builds the center text paint of every mode, indexed like ArcPaints#mode.
+    private static Paint[] createCenterPaints(float textSize) {
+        Paint[] paints = new Paint[ArcPaints.MODE_COUNT];
+        for (int ambient = 0; ambient < 2; ambient++) {
+            for (int outline = 0; outline < 2; outline++) {
+                for (int lowBit = 0; lowBit < 2; lowBit++) {
+                    Paint paint = new Paint();
+                    paint.setStyle(outline == 1 ? Paint.Style.STROKE : Paint.Style.FILL_AND_STROKE);
+                    paint.setStrokeWidth(1f);
+                    paint.setTextAlign(Paint.Align.CENTER);
+                    paint.setColor(Color.WHITE);
+                    // Low-bit screens can't show anti-aliased text in ambient mode.
+                    paint.setAntiAlias(!(ambient == 1 && lowBit == 1));
+                    paint.setTextSize(textSize);
+                    paints[ArcPaints.mode(ambient == 1, outline == 1, lowBit == 1)] = paint;
+                }
+            }
+        }
+        return paints;
+    }
+
+    /*
+     * Picks up the latest snapshot of the ingester. Unchanged slots are shared between
+     * snapshots, so only the nodes of the slots that were rebuilt are invalidated.
+     */
+    private void updateSnapshot() {
+        FaceSnapshot snapshot = mIngester.getSnapshot();
+        if (snapshot == mSnapshot) {
+            return;
+        }
+        for (int i = 0; i < COMPLICATION_IDS.length; i++) {
+            if (snapshot.getSlot(i) != mSnapshot.getSlot(i)) {
+                mCompositor.invalidateSlot(i);
+            }
+        }
+        for (int i = 0; i < mArcAnimations.length; i++) {
+            SlotSnapshot previous = mSnapshot.getSlot(i + RANGED_ID_OFFSET);
+            SlotSnapshot slot = snapshot.getSlot(i + RANGED_ID_OFFSET);
+            if (slot != previous) {
+                updateArcAnimation(i, previous, slot);
+                if (mIconThemeMode) {
+                    requestTheme(i, slot);
+                }
+            }
+        }
+        mSnapshot = snapshot;
+    }
+
+    /*
+     * Starts extracting the theme of the icon shown in the slot, unless the arc already has it.
+     * Arcs without an icon go back to their default colors.
+     */
+    private void requestTheme(int rangedIndex, SlotSnapshot slot) {
+        Icon icon = getThemeIcon(slot.data);
+        if (icon == mThemeIcons[rangedIndex]) {
+            return;
+        }
+        mThemeIcons[rangedIndex] = icon;
+        if (icon == null) {
+            applyTheme(rangedIndex, null);
+        } else {
+            mThemeCache.extract(icon, mThemeHandler, mThemeCallback);
+        }
+    }
+
+    private static Icon getThemeIcon(ComplicationData complicationData) {
+        if (complicationData == null) {
+            return null;
+        } else if (complicationData.getIcon() != null) {
+            return complicationData.getIcon();
+        } else if (complicationData.getSmallImage() != null) {
+            return complicationData.getSmallImage();
+        }
+        return complicationData.getLargeImage();
+    }
+
+    // Colors an arc with the theme, or with its default colors if the theme is null.
+    private void applyTheme(int rangedIndex, PaletteThemeCache.Theme theme) {
+        int primaryColor = theme != null ? theme.primaryColor : mDefaultPrimaryColors[rangedIndex];
+        int secondaryColor = theme != null
+                ? theme.secondaryColor : mDefaultSecondaryColors[rangedIndex];
+        ArcComplication arc = mRangedComplications[rangedIndex];
+        if (arc.getPrimaryColor() == primaryColor && arc.getSecondaryColor() == secondaryColor) {
+            return;
+        }
+
+        arc.setColors(primaryColor, secondaryColor);
+        // Icons are tinted with the color of the progress arc.
+        mIngester.setIconTint(rangedIndex, primaryColor);
+        mCompositor.invalidate(mTrackNodes[rangedIndex]);
+        mCompositor.invalidate(mArcNodes[rangedIndex]);
+        mCallback.onInvalidate();
+    }
+
+    /*
+     * Animates an arc from the value it shows to the value of its new slot. Only a ranged value
+     * replacing a ranged value is animated, anything else, and every ambient update, jumps.
+     */
+    private void updateArcAnimation(int rangedIndex, SlotSnapshot previous, SlotSnapshot slot) {
+        ValueAnimation animation = mArcAnimations[rangedIndex];
+        if (!mAmbientMode && previous.trackType == ArcComplication.TRACK_RANGED
+                && slot.trackType == ArcComplication.TRACK_RANGED) {
+            if (slot.percent != animation.getTarget()) {
+                animation.animateTo(slot.percent, mFrameTimeMillis,
+                        mFramePacer.getAnimationDurationMillis());
+            }
+        } else {
+            animation.jumpTo(slot.percent);
+        }
+    }
+
+    /*
+     * Draws the face. With a dirty region, as when the ambient frame is patched, only the parts
+     * that intersect it are drawn.
+     */
+    private void drawFrame(Canvas canvas, Rect dirty) {
+        long modeKey = Compositor.modeKey(mAmbientMode, isOutlineMode(), mLowBitAmbient,
+                mQualityTier, mShadowQuality);
+        mCompositor.draw(canvas, modeKey, mFrameTimeMillis, dirty, !mAmbientMode);
+    }
+
+    // A black fill, cheaper to draw than to blit.
+    private class BackgroundNode extends RenderNode {
+        BackgroundNode() {
+            super(INVALIDATED_BY_LAYOUT | INVALIDATED_BY_MODE, 0, FrameStats.PHASE_BACKGROUND,
+                    false);
+        }
+
+        @Override
+        Rect getBounds() {
+            return mSurfaceBounds;
+        }
+
+        @Override
+        public void render(Canvas canvas) {
+            if (mAmbientMode && (mLowBitAmbient || mBurnInProtection)) {
+                canvas.drawColor(Color.BLACK);
+            } else {
+                canvas.drawPaint(mBackgroundPaint);
+            }
+        }
+    }
+
+    // The divider lines, interactive only and dropped by the lowest quality tier.
+    private class DividerNode extends RenderNode {
+        DividerNode() {
+            super(INVALIDATED_BY_LAYOUT | INVALIDATED_BY_MODE, 0, FrameStats.PHASE_DIVIDERS, true);
+        }
+
+        @Override
+        Rect getBounds() {
+            return mSurfaceBounds;
+        }
+
+        @Override
+        boolean isVisible() {
+            return !mAmbientMode && mQualityTier < QualityGovernor.TIER_NO_DIVIDERS;
+        }
+
+        @Override
+        public void render(Canvas canvas) {
+            mBackgroundDividerDrawable.draw(canvas);
+        }
+    }
+
+    /*
+     * The track behind an arc. It only depends on the track type of the slot, not its value, so
+     * the type is part of the layer key instead of invalidating the node with every update.
+     */
+    private class ArcTrackNode extends RenderNode {
+        private final int mRangedIndex;
+
+        ArcTrackNode(int rangedIndex) {
+            super(INVALIDATED_BY_LAYOUT | INVALIDATED_BY_MODE | INVALIDATED_BY_STYLE, 0, NO_PHASE,
+                    true);
+            mRangedIndex = rangedIndex;
+        }
+
+        private int getTrackType() {
+            return mSnapshot.getSlot(mRangedIndex + RANGED_ID_OFFSET).trackType;
+        }
+
+        @Override
+        Rect getBounds() {
+            return mRangedComplications[mRangedIndex].getDrawBounds();
+        }
+
+        @Override
+        boolean isVisible() {
+            return getTrackType() != ArcComplication.TRACK_NONE;
+        }
+
+        @Override
+        long getLayerKey(long modeKey) {
+            return (modeKey << 2) | getTrackType();
+        }
+
+        @Override
+        public void render(Canvas canvas) {
+            mRangedComplications[mRangedIndex].drawTrack(canvas, getTrackType());
+        }
+    }
+
+    private class CenterTextNode extends RenderNode {
+        CenterTextNode() {
+            super(INVALIDATED_BY_LAYOUT | INVALIDATED_BY_MODE | INVALIDATED_BY_DATA,
+                    slotBit(CENTER_COMPLICATION_ID), FrameStats.PHASE_CENTER_TEXT, true);
+        }
+
+        @Override
+        Rect getBounds() {
+            return mCenterTextBounds;
+        }
+
+        @Override
+        public void render(Canvas canvas) {
+            String centerText = mSnapshot.getSlot(CENTER_COMPLICATION_ID).shortText;
+            if (centerText != null) {
+                canvas.drawText(centerText, mCenterX, mCenterY + mComplicationMargin,
+                        mCenterPaint);
+            }
+        }
+    }
+
+    // The ComplicationDrawables format their texts for the frame time, they are drawn every frame.
+    private class ComplicationsNode extends RenderNode {
+        ComplicationsNode() {
+            super(INVALIDATED_BY_LAYOUT | INVALIDATED_BY_MODE | INVALIDATED_BY_DATA
+                            | INVALIDATED_BY_FRAME,
+                    (1 << CENTER_COMPLICATION_ID) - 1, FrameStats.PHASE_COMPLICATIONS, false);
+        }
+
+        @Override
+        Rect getBounds() {
+            return mComplicationBounds;
+        }
+
+        @Override
+        boolean isVisible() {
+            return !mAmbientMode;
+        }
+
+        @Override
+        public void render(Canvas canvas) {
+            for (int i = 0; i < CENTER_COMPLICATION_ID; i++) {
+                mComplicationDrawables[i].draw(canvas, mFrameTimeMillis);
+            }
+        }
+    }
+
+    // The progress or text and the icon of an arc, drawn directly while the progress animates.
+    private class ArcNode extends RenderNode {
+        private final int mRangedIndex;
+
+        ArcNode(int rangedIndex) {
+            super(INVALIDATED_BY_LAYOUT | INVALIDATED_BY_MODE | INVALIDATED_BY_STYLE
+                            | INVALIDATED_BY_DATA,
+                    slotBit(rangedIndex + RANGED_ID_OFFSET), FrameStats.PHASE_ARC + rangedIndex,
+                    true);
+            mRangedIndex = rangedIndex;
+        }
+
+        @Override
+        Rect getBounds() {
+            return mRangedComplications[mRangedIndex].getDrawBounds();
+        }
+
+        @Override
+        boolean isAnimating(long frameTimeMillis) {
+            return mArcAnimations[mRangedIndex].isRunning(frameTimeMillis);
+        }
+
+        @Override
+        public void render(Canvas canvas) {
+            boolean laidOut = mSnapshot.geometry == mGeometry;
+            mRangedComplications[mRangedIndex].draw(canvas,
+                    mSnapshot.getSlot(mRangedIndex + RANGED_ID_OFFSET),
+                    mArcAnimations[mRangedIndex].valueAt(mFrameTimeMillis), laidOut);
+        }
+    }
+}
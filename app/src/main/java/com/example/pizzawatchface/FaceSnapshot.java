@@ -0,0 +1,36 @@
+package com.example.pizzawatchface;
+
+import com.example.pizzawatchface.core.FaceGeometry;
+
+import static com.example.pizzawatchface.Constants.COMPLICATION_IDS;
+
+/**
+ * Immutable state of every complication slot, published by {@link ComplicationIngester} with a
+ * single atomic swap. A frame reads one snapshot and draws it as a whole, so it never mixes slots
+ * from different updates. Slots that did not change are shared between snapshots, which lets
+ * readers find the changed slots by identity.
+ */
+public final class FaceSnapshot {
+    static final FaceSnapshot EMPTY = new FaceSnapshot(null, emptySlots());
+
+    // The layout the arc texts and icons were built for, null before the first surface.
+    public final FaceGeometry geometry;
+    private final SlotSnapshot[] slots;
+
+    FaceSnapshot(FaceGeometry geometry, SlotSnapshot[] slots) {
+        this.geometry = geometry;
+        this.slots = slots;
+    }
+
+    public SlotSnapshot getSlot(int complicationId) {
+        return slots[complicationId];
+    }
+
+    private static SlotSnapshot[] emptySlots() {
+        SlotSnapshot[] slots = new SlotSnapshot[COMPLICATION_IDS.length];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = SlotSnapshot.EMPTY;
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import com.example.pizzawatchface.core.FrameHistogram;
+import com.example.pizzawatchface.core.FrameStats;
+import com.example.pizzawatchface.core.UpdateCoalescer;
+
+/**
+ * Debug overlay that draws the frame time percentiles of the current mode, the frames drawn in
+ * the last minute and the complication updates against the frames drawn for them on top of the
+ * face. Text is formatted into a reused buffer, so drawing the
+ * overlay doesn't allocate either.
+ */
+public class FrameStatsOverlay {
+    private final Paint paint = new Paint();
+    private final StringBuilder line = new StringBuilder();
+
+    public FrameStatsOverlay() {
+        paint.setColor(Color.GREEN);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setAntiAlias(true);
+    }
+
+    public void draw(Canvas canvas, FrameStats stats, UpdateCoalescer coalescer,
+                     long currentTimeMillis, float centerX, float top, float textSize) {
+        paint.setTextSize(textSize);
+        FrameHistogram frame = stats.getHistogram(stats.getMode(), FrameStats.PHASE_FRAME);
+
+        line.setLength(0);
+        line.append("p50 ");
+        appendMillis(frame.getPercentileMicros(50));
+        line.append(" p95 ");
+        appendMillis(frame.getPercentileMicros(95));
+        canvas.drawText(line, 0, line.length(), centerX, top + textSize, paint);
+
+        line.setLength(0);
+        line.append("max ");
+        appendMillis(frame.getMaxMicros());
+        line.append(" fpm ").append(stats.getFramesPerMinute(currentTimeMillis));
+        canvas.drawText(line, 0, line.length(), centerX, top + textSize * 2, paint);
+
+        line.setLength(0);
+        line.append("upd ").append(coalescer.getUpdates());
+        line.append(" frm ").append(coalescer.getUpdateFrames());
+        canvas.drawText(line, 0, line.length(), centerX, top + textSize * 3, paint);
+    }
+
+    // Appends microseconds as milliseconds with one decimal.
+    private void appendMillis(long micros) {
+        line.append(micros / 1000).append('.').append(micros / 100 % 10).append("ms");
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.Icon;
+import android.util.LruCache;
+
+/**
+ * Bounded cache of decoded, pre-tinted complication icons.
+ * <p>
+ * Used by {@link ComplicationIngester} on its worker thread: {@link #get(Icon, int, boolean, int,
+ * int)} decodes an icon on a miss, so the cost of decoding is paid there and never while drawing.
+ * Keeping decoded icons around means a surface change back to a previous size, or a snapshot
+ * rebuilt for a text change, doesn't decode them again. The provider's {@link Icon} is never
+ * modified, the tint is applied to a mutated copy of the drawable.
+ * <p>
+ * Not thread safe, confine it to one thread.
+ */
+public class IconCache {
+    // Keeps a handful of icon variants for the four arcs, the value is the bitmap size in bytes.
+    private static final int MAX_SIZE_BYTES = 1024 * 1024;
+
+    private final Context context;
+    private final LruCache<Key, Bitmap> bitmaps = new LruCache<Key, Bitmap>(MAX_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(Key key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+    private final Key lookupKey = new Key();
+
+    public IconCache(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Returns the decoded icon, decoding it if it is not cached. Returns null if there is no icon
+     * or it can't be decoded.
+     */
+    public Bitmap get(Icon icon, int tint, boolean ambient, int width, int height) {
+        if (icon == null || width <= 0 || height <= 0) {
+            return null;
+        }
+        lookupKey.set(icon, tint, ambient, width, height);
+        Bitmap bitmap = bitmaps.get(lookupKey);
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        bitmap = decode(icon, tint, width, height);
+        if (bitmap != null) {
+            Key key = new Key();
+            key.set(icon, tint, ambient, width, height);
+            bitmaps.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    public void clear() {
+        bitmaps.evictAll();
+    }
+
+    private Bitmap decode(Icon icon, int tint, int width, int height) {
+        Drawable drawable = icon.loadDrawable(context);
+        if (drawable == null) {
+            return null;
+        }
+
+        // Mutate so neither the provider's icon nor other users of the drawable see the tint.
+        drawable = drawable.mutate();
+        drawable.setTint(tint);
+        drawable.setBounds(0, 0, width, height);
+
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        drawable.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    /*
+     * Icons are compared by identity: a provider sends a new Icon instance whenever its data
+     * changes, and comparing the icon content would cost as much as decoding it.
+     */
+    private static final class Key {
+        private Icon icon;
+        private int tint;
+        private boolean ambient;
+        private int width;
+        private int height;
+
+        void set(Icon icon, int tint, boolean ambient, int width, int height) {
+            this.icon = icon;
+            this.tint = tint;
+            this.ambient = ambient;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return icon == other.icon && tint == other.tint && ambient == other.ambient
+                    && width == other.width && height == other.height;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(icon);
+            result = 31 * result + tint;
+            result = 31 * result + (ambient ? 1 : 0);
+            result = 31 * result + width;
+            result = 31 * result + height;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.pizzawatchface;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.Icon;
+import android.os.Handler;
+import android.util.AtomicFile;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.palette.graphics.Palette;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Derives arc colors from complication icons with {@link Palette}, for the icon theme mode.
+ * <p>
+ * Extraction runs on the {@link BackgroundExecutor}: the icon is rendered at a fixed small size,
+ * its pixels are hashed, and the theme is looked up by that hash in memory, then on disk, before
+ * Palette runs. The same picture, even from another icon instance or after a restart, is
+ * therefore only analyzed once. Results, including icons without usable colors, are written to
+ * the cache dir, one small file per hash.
+ * <p>
+ * {@link #extract(Icon, Handler, Callback)} can be called from any thread.
+ */
+public class PaletteThemeCache {
+    private static final String TAG = "PaletteThemeCache";
+    private static final String DIR_NAME = "palette_themes";
+    private static final int VERSION = 1;
+    // Plenty for Palette, which scales larger bitmaps down to about this many pixels anyway.
+    private static final int SAMPLE_SIZE = 48;
+    private static final int MEMORY_ENTRIES = 32;
+
+    /**
+     * Colors of one arc. Immutable.
+     */
+    public static final class Theme {
+        public final int primaryColor;
+        public final int secondaryColor;
+
+        Theme(int primaryColor, int secondaryColor) {
+            this.primaryColor = primaryColor;
+            this.secondaryColor = secondaryColor;
+        }
+    }
+
+    /**
+     * Receives the theme of an icon, null if the icon has no usable colors.
+     */
+    public interface Callback {
+        void onThemeExtracted(Icon icon, Theme theme);
+    }
+
+    // Icons without usable colors are remembered too, so they aren't analyzed again.
+    private static final Theme NO_THEME = new Theme(0, 0);
+
+    private static PaletteThemeCache instance;
+
+    private final Context context;
+    private final File dir;
+    private final LruCache<String, Theme> themes = new LruCache<>(MEMORY_ENTRIES);
+
+    private PaletteThemeCache(Context context) {
+        this.context = context;
+        dir = new File(context.getCacheDir(), DIR_NAME);
+    }
+
+    public static synchronized PaletteThemeCache get(Context context) {
+        if (instance == null) {
+            instance = new PaletteThemeCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Extracts the theme of the icon in the background and posts it to the callback handler.
+     */
+    public void extract(final Icon icon, final Handler callbackHandler, final Callback callback) {
+        BackgroundExecutor.get().execute(new Runnable() {
+            @Override
+            public void run() {
+                final Theme theme = load(icon);
+                callbackHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onThemeExtracted(icon, theme);
+                    }
+                });
+            }
+        });
+    }
+
+    // Called on a background thread.
+    private Theme load(Icon icon) {
+        Bitmap bitmap = render(icon);
+        if (bitmap == null) {
+            return null;
+        }
+
+        try {
+            String hash = hash(bitmap);
+            Theme theme = themes.get(hash);
+            if (theme == null) {
+                theme = read(hash);
+            }
+            if (theme == null) {
+                theme = generate(bitmap);
+                write(hash, theme);
+            }
+            themes.put(hash, theme);
+            return theme == NO_THEME ? null : theme;
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    private Bitmap render(Icon icon) {
+        Drawable drawable = icon.loadDrawable(context);
+        if (drawable == null) {
+            return null;
+        }
+        Bitmap bitmap = Bitmap.createBitmap(SAMPLE_SIZE, SAMPLE_SIZE, Bitmap.Config.ARGB_8888);
+        drawable.setBounds(0, 0, SAMPLE_SIZE, SAMPLE_SIZE);
+        drawable.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    private static String hash(Bitmap bitmap) {
+        ByteBuffer pixels = ByteBuffer.allocate(bitmap.getByteCount());
+        bitmap.copyPixelsToBuffer(pixels);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(pixels.array());
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                        .append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Android runtime has SHA-1.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * The most vibrant color draws the progress, a light variant the track. Icons that are a
+     * single flat color, like most tinted complication icons, may have no vibrant swatch and
+     * fall back to the dominant one.
+     */
+    private static Theme generate(Bitmap bitmap) {
+        Palette palette = Palette.from(bitmap).generate();
+        Palette.Swatch primary = palette.getVibrantSwatch();
+        if (primary == null) {
+            primary = palette.getDominantSwatch();
+        }
+        if (primary == null) {
+            return NO_THEME;
+        }
+        Palette.Swatch secondary = palette.getLightVibrantSwatch();
+        if (secondary == null) {
+            secondary = palette.getLightMutedSwatch();
+        }
+        int secondaryColor = secondary != null ? secondary.getRgb() : primary.getBodyTextColor();
+        return new Theme(primary.getRgb(), secondaryColor);
+    }
+
+    private Theme read(String hash) {
+        AtomicFile file = new AtomicFile(new File(dir, hash));
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(file.openRead());
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            if (!in.readBoolean()) {
+                return NO_THEME;
+            }
+            return new Theme(in.readInt(), in.readInt());
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read a cached theme", e);
+            return null;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void write(String hash, Theme theme) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Could not create the theme cache dir");
+            return;
+        }
+        AtomicFile file = new AtomicFile(new File(dir, hash));
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeByte(VERSION);
+            data.writeBoolean(theme != NO_THEME);
+            if (theme != NO_THEME) {
+                data.writeInt(theme.primaryColor);
+                data.writeInt(theme.secondaryColor);
+            }
+            data.flush();
+            file.finishWrite(out);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not cache a theme", e);
+            if (out != null) {
+                file.failWrite(out);
+            }
+        }
+    }
+}
@@ -7,31 +7,25 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.Rect;
-import android.graphics.RectF;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Message;
+import android.os.Looper;
 
 import android.support.wearable.complications.ComplicationData;
 import android.support.wearable.complications.ComplicationHelperActivity;
-import android.support.wearable.complications.rendering.ComplicationDrawable;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
 import android.view.SurfaceHolder;
+import android.view.WindowInsets;
 import android.widget.Toast;
 
-import java.lang.ref.WeakReference;
 import java.util.Calendar;
 import java.util.TimeZone;
-import java.util.concurrent.TimeUnit;
 import static com.example.pizzawatchface.Constants.*;
 import static com.example.pizzawatchface.ComplicationLocation.*;
 
-import androidx.core.content.ContextCompat;
+import com.example.pizzawatchface.core.Clock;
 
 /**
  * Analog watch face with a ticking second hand. In ambient mode, the second hand isn"t
@@ -47,19 +41,6 @@ import androidx.core.content.ContextCompat;
  */
 public class PizzaWatchFaceService extends CanvasWatchFaceService {
 
-    /*
-     * Updates rate in milliseconds for interactive mode. We update once a second to advance the
-     * second hand.
-     */
-    private static final long INTERACTIVE_UPDATE_RATE_MS = TimeUnit.SECONDS.toMillis(1);
-
-    /**
-     * Handler message id for updating the time periodically in interactive mode.
-     */
-    private static final int MSG_UPDATE_TIME = 0;
-
-    private static Engine engine;
-
     // Used by {@link ComplicationConfigActivity} to retrieve complication types supported by
     // location.
     static int[] getSupportedComplicationTypes(
@@ -74,37 +55,11 @@ public class PizzaWatchFaceService extends CanvasWatchFaceService {
 
     @Override
     public Engine onCreateEngine() {
-        engine = new Engine();
-        return engine;
-    }
-
-    public static Engine getEngine() {
-        return engine;
-    }
-
-    public class EngineHandler extends Handler {
-        private final WeakReference<PizzaWatchFaceService.Engine> mWeakReference;
-
-        public EngineHandler(PizzaWatchFaceService.Engine reference) {
-            mWeakReference = new WeakReference<>(reference);
-        }
-
-        @Override
-        public void handleMessage(Message msg) {
-            PizzaWatchFaceService.Engine engine = mWeakReference.get();
-            if (engine != null) {
-                switch (msg.what) {
-                    case MSG_UPDATE_TIME:
-                        engine.handleUpdateTimeMessage();
-                        break;
-                }
-            }
-        }
+        return new Engine();
     }
 
     public class Engine extends CanvasWatchFaceService.Engine {
-        /* Handler to update the time once a second in interactive mode. */
-        private final Handler mUpdateTimeHandler = new EngineHandler(this);
+        private final Clock mClock = Clock.SYSTEM;
         private Calendar mCalendar;
 
         private final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
@@ -116,41 +71,28 @@ public class PizzaWatchFaceService extends CanvasWatchFaceService {
         };
         private boolean mRegisteredTimeZoneReceiver = false;
         private boolean mMuteMode;
-        private float mCenterX;
-        private float mCenterY;
-        private float mComplicationMargin;
-        private Paint mCenterPaint;
-        private Paint mBottomPaint;
-        private Paint mBackgroundPaint;
 
-        private BackgroundDividerDrawable backgroundDividerDrawable;
-
-        private boolean isAmbientMode;
-        private boolean isHollowMode;
-
-        /*
-         * Whether the display supports fewer bits for each color in ambient mode.
-         * When true, we disable anti-aliasing in ambient mode.
-         */
-        private boolean hasLowBitAmbient;
-
-        /*
-         * Whether the display supports burn in protection in ambient mode.
-         * When true, remove the persistent images in ambient mode.
-         */
-        private boolean hasBurnInProtection;
-        /* Maps complication ids to corresponding ComplicationDrawable that renders the
-         * the complication data on the watch face.
-         */
-        private ComplicationDrawable[] mComplicationDrawables;
+        // Draws the face, and arms the timers and handles the ticks that wake it up, see
+        // FaceDriver.
+        private FaceDriver mDriver;
+        private final FaceDriver.Host mDriverHost = new FaceDriver.Host() {
+            @Override
+            public void invalidate() {
+                Engine.this.invalidate();
+            }
+        };
 
-        // Stores the ranged complication on the edge of the screen
-        private ArcComplication[] mRangedComplications;
+        // User settings, applied on creation and whenever the config activity changes them.
+        private FaceConfigStore mConfigStore;
+        private final FaceConfigStore.Listener mConfigListener = new FaceConfigStore.Listener() {
+            @Override
+            public void onConfigChanged(FaceConfigStore store) {
+                applyConfig(store);
+            }
+        };
 
-        /* Maps active complication ids to the data for that complication. Note: Data will only be
-         * present if the user has chosen a provider via the settings activity for the watch face.
-         */
-        private ComplicationData[] complicationData;
+        // Where the received complication data is shared with the config screen.
+        private ComplicationDataRepository mComplicationDataRepository;
 
         @Override
         public void onCreate(SurfaceHolder holder) {
@@ -162,150 +104,57 @@ public class PizzaWatchFaceService extends CanvasWatchFaceService {
 
             mCalendar = Calendar.getInstance();
 
-            mBackgroundPaint = new Paint();
-            mBackgroundPaint.setColor(Color.BLACK);
-
-            mCenterPaint = new Paint();
-            mCenterPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-            mCenterPaint.setStrokeWidth(1f);
-            mCenterPaint.setTextAlign(Paint.Align.CENTER);
-            mCenterPaint.setColor(Color.WHITE);
-            mCenterPaint.setAntiAlias(true);
-
-            mBottomPaint = new Paint();
-            mBottomPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-            mBottomPaint.setStrokeWidth(1f);
-            mBottomPaint.setTextAlign(Paint.Align.CENTER);
-            int BOTTOM_ROW_ITEM_SIZE = 24;
-            mBottomPaint.setTextSize(BOTTOM_ROW_ITEM_SIZE);
-            mBottomPaint.setColor(Color.WHITE);
-            mBottomPaint.setAntiAlias(true);
-
-            initializeComplications();
-        }
-
-        private void initializeComplications() {
-            complicationData = new ComplicationData[COMPLICATION_IDS.length];
-            mComplicationDrawables = new ComplicationDrawable[COMPLICATION_IDS.length];
-            mRangedComplications = new ArcComplication[RANGE_COMPLICATION_COUNT];
-
-            for(int i = 0; i < COMPLICATION_IDS.length; i++) {
-                initializeComplication(i);
-            }
+            mDriver = new FaceDriver(getApplicationContext(), Looper.getMainLooper(), mClock,
+                    mDriverHost);
+            mComplicationDataRepository = ComplicationDataRepository.get();
 
             setActiveComplications(COMPLICATION_IDS);
-        }
 
-        private void initializeComplication(int complicationId) {
-            ComplicationDrawable complicationDrawable =
-                    (ComplicationDrawable) getDrawable(R.drawable.custom_complication_styles);
-            if (complicationDrawable != null) {
-                complicationDrawable.setContext(getApplicationContext());
-                mComplicationDrawables[complicationId] = complicationDrawable;
-            }
+            mConfigStore = FaceConfigStore.get(getApplicationContext());
+            mConfigStore.addListener(mConfigListener);
+            applyConfig(mConfigStore);
         }
 
-        public boolean getHollowMode() {
-            return isHollowMode;
-        }
-
-        public void setHollowMode(boolean hollow) {
-            isHollowMode = hollow;
-            if(hollow) {
-                mCenterPaint.setStyle(Paint.Style.STROKE);
-                mBottomPaint.setStyle(Paint.Style.STROKE);
-                for (ArcComplication mRangedComplication : mRangedComplications) {
-                    mRangedComplication.setHollow(true);
-                }
-            } else {
-                mCenterPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-                mBottomPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-                for (ArcComplication mRangedComplication : mRangedComplications) {
-                    mRangedComplication.setHollow(false);
-                }
-            }
+        private void applyConfig(FaceConfigStore store) {
+            FaceRenderer renderer = mDriver.getRenderer();
+            renderer.setHollowMode(store.isHollowMode());
+            renderer.setShadowQuality(store.getShadowQuality());
+            renderer.setIconThemeMode(store.isIconThemeMode());
+            mDriver.setDebugOverlayEnabled(store.isDebugOverlayEnabled());
             invalidate();
         }
 
         @Override
         public void onComplicationDataUpdate(
                 int complicationId, ComplicationData complicationData) {
-            // Adds/updates active complication data in the array.
-            this.complicationData[complicationId] = complicationData;
-
-            // Updates correct ComplicationDrawable with updated data.
-            ComplicationDrawable complicationDrawable =
-                    mComplicationDrawables[complicationId];
-            complicationDrawable.setComplicationData(complicationData);
-
-            invalidate();
+            mDriver.setComplicationData(complicationId, complicationData);
+            mComplicationDataRepository.setComplicationData(complicationId, complicationData);
         }
 
         @Override
         public void onDestroy() {
-            mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            mConfigStore.removeListener(mConfigListener);
+            mDriver.release();
             super.onDestroy();
         }
 
         @Override
         public void onPropertiesChanged(Bundle properties) {
-            hasLowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT, false);
-            hasBurnInProtection = properties.getBoolean(PROPERTY_BURN_IN_PROTECTION, false);
-
-            ComplicationDrawable complicationDrawable;
-
-            for (int i = 0; i < COMPLICATION_IDS.length; i++) {
-                complicationDrawable = mComplicationDrawables[i];
-
-                if(complicationDrawable != null) {
-                    complicationDrawable.setLowBitAmbient(hasLowBitAmbient);
-                    complicationDrawable.setBurnInProtection(hasBurnInProtection);
-                }
-            }
+            boolean hasLowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT, false);
+            boolean hasBurnInProtection = properties.getBoolean(PROPERTY_BURN_IN_PROTECTION, false);
+            mDriver.getRenderer().setDisplayProperties(hasLowBitAmbient, hasBurnInProtection);
         }
 
         @Override
         public void onTimeTick() {
             super.onTimeTick();
-            invalidate();
+            mDriver.onTimeTick();
         }
 
         @Override
         public void onAmbientModeChanged(boolean inAmbientMode) {
             super.onAmbientModeChanged(inAmbientMode);
-
-            isAmbientMode = inAmbientMode;
-
-            if(isAmbientMode) {
-                if(hasLowBitAmbient) {
-                    mCenterPaint.setAntiAlias(false);
-                    mBottomPaint.setAntiAlias(false);
-                }
-            } else {
-                if(hasLowBitAmbient) {
-                    mCenterPaint.setAntiAlias(true);
-                    mBottomPaint.setAntiAlias(true);
-                }
-            }
-
-            setHollowMode(isHollowMode);
-
-            // Update drawable complications' ambient state.
-            // Note: ComplicationDrawable handles switching between active/ambient colors, we just
-            // have to inform it to enter ambient mode.
-            ComplicationDrawable complicationDrawable;
-
-            for (int i = 0; i < COMPLICATION_IDS.length; i++) {
-                complicationDrawable = mComplicationDrawables[i];
-                complicationDrawable.setInAmbientMode(isAmbientMode);
-            }
-
-            for (ArcComplication mRangedComplication : mRangedComplications) {
-                mRangedComplication.setAmbientMode(isAmbientMode);
-            }
-
-            // Check and trigger whether or not timer should be running (only in active mode).
-            updateTimer();
+            mDriver.setAmbientMode(inAmbientMode);
         }
 
         @Override
@@ -320,163 +169,16 @@ public class PizzaWatchFaceService extends CanvasWatchFaceService {
             }
         }
 
+        @Override
+        public void onApplyWindowInsets(WindowInsets insets) {
+            super.onApplyWindowInsets(insets);
+            mDriver.setRound(insets.isRound());
+        }
+
         @Override
         public void onSurfaceChanged(SurfaceHolder holder, int format, int width, int height) {
             super.onSurfaceChanged(holder, format, width, height);
-
-            Context context = getApplicationContext();
-
-            mCenterX = width / 2f;
-            mCenterY = height / 2f;
-
-            backgroundDividerDrawable = new BackgroundDividerDrawable(width, height);
-
-            int sizeOfComplication = width / 4;
-            mCenterPaint.setTextSize(width / 8f);
-
-            mComplicationMargin = sizeOfComplication / 18f;
-            mCenterPaint.setTextSize(width / 8f);
-
-
-            float rangeWidthF = width / 20f;
-            int rangeThickness = width / 20;
-            float rangeOffsetF = rangeWidthF / 2;
-            int rangeOffset = rangeThickness / 2;
-
-            RectF rangeBoundsF = new RectF(rangeOffsetF, rangeOffsetF, width - rangeOffsetF,
-                    height - rangeOffsetF);
-
-            //region Center bounds and complications
-
-            int midpointOfScreen = width / 2;
-            int radialMarginOffset = (midpointOfScreen - sizeOfComplication) / 2;
-            int verticalOffset = midpointOfScreen - (sizeOfComplication / 2);
-
-            // Left, Top, Right, Bottom
-            Rect rightBounds = new Rect(
-                    (width - sizeOfComplication),
-                    verticalOffset,
-                    (width),
-                    (verticalOffset + sizeOfComplication));
-            ComplicationDrawable rightComplicationDrawable =
-                    mComplicationDrawables[RIGHT_COMPLICATION_ID];
-            rightComplicationDrawable.setBounds(rightBounds);
-
-            Rect topRightBounds =
-                    // Left, Top, Right, Bottom
-                    new Rect(
-                            (width - radialMarginOffset - sizeOfComplication),
-                            (radialMarginOffset),
-                            (width - radialMarginOffset),
-                            (radialMarginOffset + sizeOfComplication));
-            ComplicationDrawable topRightComplicationDrawable =
-                    mComplicationDrawables[TOP_RIGHT_COMPLICATION_ID];
-            topRightComplicationDrawable.setBounds(topRightBounds);
-
-            Rect topBounds =
-                    // Left, Top, Right, Bottom
-                    new Rect(
-                            (midpointOfScreen - radialMarginOffset),
-                            (0),
-                            (midpointOfScreen + radialMarginOffset),
-                            (sizeOfComplication + radialMarginOffset));
-            ComplicationDrawable topComplicationDrawable =
-                    mComplicationDrawables[TOP_COMPLICATION_ID];
-            topComplicationDrawable.setBounds(topBounds);
-
-            Rect topLeftBounds =
-                    // Left, Top, Right, Bottom
-                    new Rect(
-                            (radialMarginOffset),
-                            (radialMarginOffset),
-                            (radialMarginOffset + sizeOfComplication),
-                            (radialMarginOffset + sizeOfComplication));
-            ComplicationDrawable topLeftComplicationDrawable =
-                    mComplicationDrawables[TOP_LEFT_COMPLICATION_ID];
-            topLeftComplicationDrawable.setBounds(topLeftBounds);
-
-            Rect leftBounds =
-                    // Left, Top, Right, Bottom
-                    new Rect(
-                            0,
-                            verticalOffset,
-                            (sizeOfComplication),
-                            (verticalOffset + sizeOfComplication));
-            ComplicationDrawable leftComplicationDrawable =
-                    mComplicationDrawables[LEFT_COMPLICATION_ID];
-            leftComplicationDrawable.setBounds(leftBounds);
-
-            // Left, Top, Right, Bottom
-            Rect bottomBounds = new Rect(
-                    radialMarginOffset,
-                    leftBounds.bottom,
-                    (width - radialMarginOffset),
-                    leftBounds.bottom + sizeOfComplication);
-            ComplicationDrawable bottomComplicationDrawable =
-                    mComplicationDrawables[BOTTOM_COMPLICATION_ID];
-            bottomComplicationDrawable.setBounds(bottomBounds);
-
-            Rect centerBounds =
-                    // Left, Top, Right, Bottom
-                    new Rect(
-                            leftBounds.right,
-                            topBounds.bottom,
-                            rightBounds.left,
-                            bottomBounds.top);
-            ComplicationDrawable centerComplicationDrawable =
-                    mComplicationDrawables[CENTER_COMPLICATION_ID];
-            centerComplicationDrawable.setBounds(centerBounds);
-
-            //endregion
-
-            //region Arc bounds and complications
-
-            Rect topRightRangedBounds =
-                    // Left, Top, Right, Bottom
-                    new Rect((int) rangeBoundsF.centerX() - rangeOffset,
-                            0,
-                            (int) rangeBoundsF.centerX() + rangeOffset,
-                            rangeThickness);
-
-            Rect topLeftRangedBounds = new Rect((int) rangeBoundsF.left - rangeOffset,
-                    (int) rangeBoundsF.centerY() - rangeOffset,
-                    (int) rangeBoundsF.left + rangeOffset,
-                    (int) rangeBoundsF.centerY() + rangeOffset);
-
-            Rect bottomRightRangedBounds = new Rect((int) rangeBoundsF.right - rangeOffset,
-                    (int) rangeBoundsF.centerY() - rangeOffset,
-                    (int) rangeBoundsF.right + rangeOffset,
-                    (int) rangeBoundsF.centerY() + rangeOffset);
-
-            Rect bottomLeftRangedBounds = new Rect((int) rangeBoundsF.centerX() - rangeOffset,
-                    (int) rangeBoundsF.bottom - rangeOffset,
-                    (int) rangeBoundsF.centerX() + rangeOffset,
-                    (int) rangeBoundsF.bottom + rangeOffset);
-
-
-
-            //Order matters when we add the complication in the array because we iterate clockwise
-            ArcComplication topRightRanged = new ArcComplication(context, rangeBoundsF,
-                    topRightRangedBounds, rangeWidthF, ContextCompat.getColor(context, R.color.purple),
-                    ContextCompat.getColor(context, R.color.light_purple), 280, 70);
-            mRangedComplications[0] = topRightRanged;
-
-            ArcComplication bottomRightRanged = new ArcComplication(context, rangeBoundsF,
-                    bottomRightRangedBounds, rangeWidthF, ContextCompat.getColor(context, R.color.yellow),
-                    ContextCompat.getColor(context, R.color.light_yellow), 10, 70);
-            mRangedComplications[1] = bottomRightRanged;
-
-            ArcComplication bottomLeftRanged = new ArcComplication(context, rangeBoundsF, bottomLeftRangedBounds, rangeWidthF,
-                    ContextCompat.getColor(context, R.color.red), ContextCompat.getColor(context, R.color.light_red),
-                    100, 70);
-            mRangedComplications[2] = bottomLeftRanged;
-
-            ArcComplication topLeftRanged = new ArcComplication(context, rangeBoundsF, topLeftRangedBounds, rangeWidthF,
-                    ContextCompat.getColor(context, R.color.green), ContextCompat.getColor(context, R.color.light_green),
-                    190, 70);
-            mRangedComplications[3] = topLeftRanged;
-
-            //endregion
+            mDriver.setSurfaceSize(width, height);
         }
 
         /**
@@ -486,46 +188,17 @@ public class PizzaWatchFaceService extends CanvasWatchFaceService {
         @Override
         public void onTapCommand(int tapType, int x, int y, long eventTime) {
             if (tapType == TAP_TYPE_TAP) {
-                int tappedComplicationId = getTappedComplicationId(x, y);
+                int tappedComplicationId = mDriver.getTappedComplicationId(x, y);
                 if (tappedComplicationId != -1) {
                     onComplicationTap(tappedComplicationId);
                 }
             }
         }
-        /*
-         * Determines if tap inside a complication area or returns -1.
-         */
-        private int getTappedComplicationId(int x, int y) {
-            ComplicationData complicationData;
-            ComplicationDrawable complicationDrawable;
-
-            long currentTimeMillis = System.currentTimeMillis();
-
-            for (int i = 0; i < COMPLICATION_IDS.length; i++) {
-                complicationData = this.complicationData[i];
-
-                if ((complicationData != null)
-                        && (complicationData.isActive(currentTimeMillis))
-                        && (complicationData.getType() != ComplicationData.TYPE_NOT_CONFIGURED)
-                        && (complicationData.getType() != ComplicationData.TYPE_EMPTY)) {
-
-                    complicationDrawable = mComplicationDrawables[i];
-                    Rect complicationBoundingRect = complicationDrawable.getBounds();
-
-                    if (complicationBoundingRect.width() > 0) {
-                        if (complicationBoundingRect.contains(x, y)) {
-                            return i;
-                        }
-                    }
-                }
-            }
-            return -1;
-        }
 
         // Fires PendingIntent associated with complication (if it has one).
         private void onComplicationTap(int complicationId) {
             ComplicationData complicationData =
-                    this.complicationData[complicationId];
+                    mDriver.getRenderer().getComplicationData(complicationId);
 
             if (complicationData != null) {
 
@@ -556,43 +229,8 @@ public class PizzaWatchFaceService extends CanvasWatchFaceService {
 
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
-            long now = System.currentTimeMillis();
-            mCalendar.setTimeInMillis(now);
-
-            drawBackground(canvas);
-
-            if (complicationData[CENTER_COMPLICATION_ID] != null) {
-                if (complicationData[CENTER_COMPLICATION_ID].getShortText() != null)
-                    canvas.drawText(complicationData[CENTER_COMPLICATION_ID].getShortText().getText(
-                            getApplicationContext(), now).toString(),
-                            mCenterX, mCenterY + mComplicationMargin, mCenterPaint);
-            }
-
-            if(!isAmbientMode) {
-                backgroundDividerDrawable.draw(canvas);
-                drawComplications(canvas, now);
-            }
-
-            for (int i = 0; i < mRangedComplications.length; i++) {
-                ComplicationData complicationData = this.complicationData[i + RANGED_ID_OFFSET];
-
-                mRangedComplications[i].draw(canvas, complicationData);
-            }
-        }
-
-        private void drawComplications(Canvas canvas, long currentTimeMillis) {
-            for (int i = 0; i < CENTER_COMPLICATION_ID; i++) {
-                ComplicationDrawable complicationDrawable = mComplicationDrawables[i];
-                complicationDrawable.draw(canvas, currentTimeMillis);
-            }
-        }
-
-        private void drawBackground(Canvas canvas) {
-            if (isAmbientMode && (hasLowBitAmbient || hasBurnInProtection)) {
-                canvas.drawColor(Color.BLACK);
-            } else {
-                canvas.drawPaint(mBackgroundPaint);
-            }
+            mCalendar.setTimeInMillis(mClock.currentTimeMillis());
+            mDriver.draw(canvas);
         }
 
         @Override
@@ -603,13 +241,12 @@ public class PizzaWatchFaceService extends CanvasWatchFaceService {
                 registerReceiver();
                 /* Update time zone in case it changed while we weren't visible. */
                 mCalendar.setTimeZone(TimeZone.getDefault());
-                invalidate();
             } else {
                 unregisterReceiver();
             }
 
-            /* Check and trigger whether or not timer should be running (only in active mode). */
-            updateTimer();
+            /* Redraw, and start or stop the timer (only in active mode). */
+            mDriver.setVisible(visible);
         }
 
         private void registerReceiver() {
@@ -628,36 +265,5 @@ public class PizzaWatchFaceService extends CanvasWatchFaceService {
             mRegisteredTimeZoneReceiver = false;
             PizzaWatchFaceService.this.unregisterReceiver(mTimeZoneReceiver);
         }
-
-        /**
-         * Starts/stops the {@link #mUpdateTimeHandler} timer based on the state of the watch face.
-         */
-        private void updateTimer() {
-            mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
-            if (shouldTimerBeRunning()) {
-                mUpdateTimeHandler.sendEmptyMessage(MSG_UPDATE_TIME);
-            }
-        }
-
-        /**
-         * Returns whether the {@link #mUpdateTimeHandler} timer should be running. The timer
-         * should only run in active mode.
-         */
-        private boolean shouldTimerBeRunning() {
-            return isVisible() && !isAmbientMode;
-        }
-
-        /**
-         * Handle updating the time periodically in interactive mode.
-         */
-        private void handleUpdateTimeMessage() {
-            invalidate();
-            if (shouldTimerBeRunning()) {
-                long timeMs = System.currentTimeMillis();
-                long delayMs = INTERACTIVE_UPDATE_RATE_MS
-                        - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
-                mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, delayMs);
-            }
-        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.example.pizzawatchface;
+
+import android.support.wearable.complications.ComplicationProviderInfo;
+
+import static com.example.pizzawatchface.Constants.COMPLICATION_IDS;
+
+/**
+ * Remembers the provider chosen for every complication slot for the lifetime of the process, so
+ * {@link ComplicationConfigActivity} can show all slots as soon as it opens and refresh them from
+ * the {@code ProviderInfoRetriever} in the background. An entry is replaced when the retriever
+ * answers or when the provider chooser returns a new provider for the slot.
+ * <p>
+ * Only accessed from the main thread.
+ */
+public class ProviderInfoCache {
+    private static final ProviderInfoCache INSTANCE = new ProviderInfoCache();
+
+    private final ComplicationProviderInfo[] providerInfos =
+            new ComplicationProviderInfo[COMPLICATION_IDS.length];
+    // Whether the entry is known, a null provider info means the slot is empty.
+    private final boolean[] known = new boolean[COMPLICATION_IDS.length];
+
+    private ProviderInfoCache() {
+    }
+
+    public static ProviderInfoCache get() {
+        return INSTANCE;
+    }
+
+    public boolean contains(int complicationId) {
+        return known[complicationId];
+    }
+
+    public ComplicationProviderInfo getProviderInfo(int complicationId) {
+        return providerInfos[complicationId];
+    }
+
+    public void put(int complicationId, ComplicationProviderInfo providerInfo) {
+        providerInfos[complicationId] = providerInfo;
+        known[complicationId] = true;
+    }
+}
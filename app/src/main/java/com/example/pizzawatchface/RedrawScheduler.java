@@ -0,0 +1,72 @@
+package com.example.pizzawatchface;
+
+import android.support.wearable.complications.ComplicationData;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Works out the next moment the face actually needs to be redrawn in interactive mode.
+ * <p>
+ * Every frame starts with {@link #begin(long)}, which defaults the next redraw to the next minute
+ * boundary. Whatever else needs the face redrawn earlier (text that changes, complications that
+ * become active or inactive, running animations) requests it during the frame, and the earliest
+ * request wins. The {@link FaceDriver} then arms its {@link RedrawTimer} for
+ * {@link #getNextRedrawTime()}.
+ */
+public class RedrawScheduler {
+    private static final long MINUTE_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private long frameTime;
+    private long nextRedrawTime;
+
+    /**
+     * Starts collecting redraw requests for the frame drawn at the given time.
+     */
+    public void begin(long currentTimeMillis) {
+        frameTime = currentTimeMillis;
+        nextRedrawTime = (currentTimeMillis / MINUTE_MS + 1) * MINUTE_MS;
+    }
+
+    /**
+     * Requests a redraw at the given time. Times that are not in the future are ignored.
+     */
+    public void requestRedrawAt(long timeMillis) {
+        if (timeMillis > frameTime && timeMillis < nextRedrawTime) {
+            nextRedrawTime = timeMillis;
+        }
+    }
+
+    /**
+     * Requests a redraw when the complication becomes active or inactive before the next redraw.
+     * <p>
+     * {@link ComplicationData} doesn't expose its start and end time, so the change is found with
+     * a binary search on {@link ComplicationData#isActive(long)}. Call this after the other
+     * requests of the frame, so the search runs over the smallest possible window.
+     */
+    public void requestActivationChange(ComplicationData complicationData) {
+        if (complicationData == null) {
+            return;
+        }
+
+        boolean active = complicationData.isActive(frameTime);
+        long low = frameTime;
+        long high = nextRedrawTime;
+        if (complicationData.isActive(high) == active) {
+            return;
+        }
+
+        while (high - low > 1) {
+            long middle = (low + high) >>> 1;
+            if (complicationData.isActive(middle) == active) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        requestRedrawAt(high);
+    }
+
+    public long getNextRedrawTime() {
+        return nextRedrawTime;
+    }
+}
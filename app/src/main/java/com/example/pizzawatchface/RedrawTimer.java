@@ -0,0 +1,77 @@
+package com.example.pizzawatchface;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+
+import com.example.pizzawatchface.core.Clock;
+
+/**
+ * The redraw timer of a {@link FaceDriver}: a single message on the looper of the driver, armed
+ * for a time of the clock of the driver. Arming it again replaces the time armed before.
+ * <p>
+ * The time it is armed for and how often it was armed can be read, so a replay on simulated time
+ * can fire it with {@link #fire()} when the clock gets there, instead of the looper.
+ * <p>
+ * Confined to the thread of the looper.
+ */
+final class RedrawTimer {
+    private static final int MSG_REDRAW = 0;
+
+    private final Clock mClock;
+    private final Runnable mOnFire;
+    private final Handler mHandler;
+    // When the timer fires, Long.MAX_VALUE if it isn't armed.
+    private long mTime = Long.MAX_VALUE;
+    private long mScheduledCount;
+
+    RedrawTimer(Looper looper, Clock clock, Runnable onFire) {
+        mClock = clock;
+        mOnFire = onFire;
+        mHandler = new Handler(looper, new Handler.Callback() {
+            @Override
+            public boolean handleMessage(Message msg) {
+                if (msg.what != MSG_REDRAW) {
+                    return false;
+                }
+                fire();
+                return true;
+            }
+        });
+    }
+
+    void schedule(long timeMillis) {
+        mTime = timeMillis;
+        mScheduledCount++;
+        mHandler.removeMessages(MSG_REDRAW);
+        mHandler.sendEmptyMessageDelayed(MSG_REDRAW,
+                Math.max(0, timeMillis - mClock.currentTimeMillis()));
+    }
+
+    void cancel() {
+        mTime = Long.MAX_VALUE;
+        mHandler.removeMessages(MSG_REDRAW);
+    }
+
+    /**
+     * Disarms the timer and runs what it was armed for.
+     */
+    void fire() {
+        cancel();
+        mOnFire.run();
+    }
+
+    /**
+     * Returns when the timer fires, Long.MAX_VALUE if it isn't armed.
+     */
+    long getTime() {
+        return mTime;
+    }
+
+    /**
+     * Returns how often the timer was armed.
+     */
+    long getScheduledCount() {
+        return mScheduledCount;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+/**
+ * A part of the face in the render graph of a {@link Compositor}, like the dividers or one arc.
+ * <p>
+ * A node declares what invalidates its content. A retained node is rendered into a
+ * {@link RetainedLayer} and blitted from it until one of those changes; the other nodes are drawn
+ * directly on every frame, either because their content follows the frame time or because they
+ * are cheaper to draw than to blit.
+ */
+abstract class RenderNode implements RetainedLayer.Renderer {
+    // What can invalidate a node, combined in invalidatedBy.
+    static final int INVALIDATED_BY_LAYOUT = 1;
+    // The render mode and quality. Part of the layer key rather than dropping the layer, so the
+    // interactive layers survive a trip through ambient mode.
+    static final int INVALIDATED_BY_MODE = 1 << 1;
+    // The colors of the arcs.
+    static final int INVALIDATED_BY_STYLE = 1 << 2;
+    // The data of the slots in slotMask.
+    static final int INVALIDATED_BY_DATA = 1 << 3;
+    // The frame time, as for relative time texts. Such a node can't be retained.
+    static final int INVALIDATED_BY_FRAME = 1 << 4;
+
+    // For nodes that are not timed on their own, see FrameStats.
+    static final int NO_PHASE = -1;
+
+    final int invalidatedBy;
+    // One bit per complication id.
+    final int slotMask;
+    final int phase;
+    // Null for nodes drawn directly.
+    final RetainedLayer layer;
+
+    RenderNode(int invalidatedBy, int slotMask, int phase, boolean retained) {
+        this.invalidatedBy = invalidatedBy;
+        this.slotMask = slotMask;
+        this.phase = phase;
+        layer = retained && (invalidatedBy & INVALIDATED_BY_FRAME) == 0 ? new RetainedLayer() : null;
+    }
+
+    static int slotBit(int complicationId) {
+        return 1 << complicationId;
+    }
+
+    /**
+     * Returns the region the node draws into. The rect is shared, don't modify it.
+     */
+    abstract Rect getBounds();
+
+    /**
+     * Whether the node is drawn at all in the current mode.
+     */
+    boolean isVisible() {
+        return true;
+    }
+
+    /**
+     * Whether the content changes on every frame for now, the node is drawn directly meanwhile.
+     */
+    boolean isAnimating(long frameTimeMillis) {
+        return false;
+    }
+
+    /**
+     * Returns the key of the layer content for the given mode key, see
+     * {@link Compositor#modeKey(boolean, boolean, boolean, int, int)}. Nodes can add the parts of
+     * their data that don't invalidate the layer.
+     */
+    long getLayerKey(long modeKey) {
+        return (invalidatedBy & INVALIDATED_BY_MODE) != 0 ? modeKey : 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+
+/**
+ * The offscreen bitmap of a retained {@link RenderNode}, covering the bounds of the node. The
+ * content is rendered once per key and blitted on the frames after that.
+ * <p>
+ * The key stands for what the content depends on without dropping the layer, like the render
+ * mode; {@link #invalidate()} is for what does, like new data. The bitmap is reused for the next
+ * content when the size still matches.
+ */
+public class RetainedLayer {
+
+    /**
+     * Draws the content of a layer, in the coordinates of the face. Called only when the layer is
+     * not up to date.
+     */
+    public interface Renderer {
+        void render(Canvas canvas);
+    }
+
+    private final Canvas layerCanvas = new Canvas();
+    private Bitmap layer;
+    private long key;
+    private boolean valid;
+    private int left;
+    private int top;
+
+    /**
+     * Blits the layer at its bounds, rendering it first if it is invalid or was rendered for
+     * another key or other bounds.
+     */
+    public void draw(Canvas canvas, long key, Rect bounds, Renderer renderer) {
+        if (!valid || key != this.key || bounds.left != left || bounds.top != top
+                || layer.getWidth() != Math.max(1, bounds.width())
+                || layer.getHeight() != Math.max(1, bounds.height())) {
+            render(key, bounds, renderer);
+        }
+        canvas.drawBitmap(layer, left, top, null);
+    }
+
+    /**
+     * Marks the content out of date, the bitmap is kept for the next one.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Releases the bitmap.
+     */
+    public void clear() {
+        if (layer != null) {
+            layer.recycle();
+            layer = null;
+        }
+        valid = false;
+    }
+
+    private void render(long key, Rect bounds, Renderer renderer) {
+        int width = Math.max(1, bounds.width());
+        int height = Math.max(1, bounds.height());
+        if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+            if (layer != null) {
+                layer.recycle();
+            }
+            layer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } else {
+            layer.eraseColor(Color.TRANSPARENT);
+        }
+
+        layerCanvas.setBitmap(layer);
+        layerCanvas.save();
+        layerCanvas.translate(-bounds.left, -bounds.top);
+        renderer.render(layerCanvas);
+        layerCanvas.restore();
+        layerCanvas.setBitmap(null);
+
+        this.key = key;
+        left = bounds.left;
+        top = bounds.top;
+        valid = true;
+    }
+}
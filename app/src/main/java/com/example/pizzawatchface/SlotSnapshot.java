@@ -0,0 +1,40 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Path;
+import android.support.wearable.complications.ComplicationData;
+
+/**
+ * Render-ready model of one complication slot, built by {@link ComplicationIngester} off the UI
+ * thread. Everything a frame needs is derived up front: the clamped progress, the evaluated
+ * center text, the arc text laid out as a path and the decoded icons.
+ * <p>
+ * Immutable once published; the path and bitmaps must not be modified by readers.
+ */
+public final class SlotSnapshot {
+    static final SlotSnapshot EMPTY = new SlotSnapshot(null, ArcComplication.TRACK_NONE, 0, null,
+            null, null, null);
+
+    public final ComplicationData data;
+    // See ArcComplication#getTrackType, TRACK_NONE for slots other than the arcs.
+    public final int trackType;
+    // Progress of a ranged value in [0, 1].
+    public final float percent;
+    // Evaluated short text, used for the center slot.
+    public final String shortText;
+    // Text along the arc for non-ranged data, null when there is none.
+    public final Path textPath;
+    public final Bitmap icon;
+    public final Bitmap ambientIcon;
+
+    SlotSnapshot(ComplicationData data, int trackType, float percent, String shortText,
+                 Path textPath, Bitmap icon, Bitmap ambientIcon) {
+        this.data = data;
+        this.trackType = trackType;
+        this.percent = percent;
+        this.shortText = shortText;
+        this.textPath = textPath;
+        this.icon = icon;
+        this.ambientIcon = ambientIcon;
+    }
+}
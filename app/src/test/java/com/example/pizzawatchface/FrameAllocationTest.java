@@ -0,0 +1,157 @@
+package com.example.pizzawatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Looper;
+
+import com.example.pizzawatchface.core.ManualClock;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.pizzawatchface.Constants.*;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Draws frames of a warm {@link FaceDriver}, the whole of what {@code Engine.onDraw} does, and
+ * fails if any of them allocates, counted with the allocation counter of the drawing thread.
+ * <p>
+ * Every complication type is shown in the center and on the arcs, in interactive mode with the
+ * debug overlay and in ambient mode. The other slots are drawn by the {@code ComplicationDrawable}
+ * of the wearable library, whose rendering isn't ours to keep allocation free; they are drawn
+ * every frame, but empty.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class FrameAllocationTest {
+    private static final int SIZE = 454;
+    // Enough for every cache to fill and the hot paths to be compiled.
+    private static final int WARM_FRAMES = 300;
+    private static final int FRAMES = 100;
+    // 2023-11-15 10:08 UTC, any fixed time will do.
+    private static final long START_TIME = 1700042880000L;
+    private static final long INTERACTIVE_STEP_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final long AMBIENT_STEP_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final FaceDriver.Host NO_HOST = new FaceDriver.Host() {
+        @Override
+        public void invalidate() {
+        }
+    };
+
+    @Test
+    public void warmFramesDontAllocate() throws ReflectiveOperationException {
+        AllocationCounter counter = new AllocationCounter();
+        List<String> failures = new ArrayList<>();
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        for (GoldenScenario scenario : GoldenScenario.all()) {
+            // One scenario per complication type, the data is the same in every mode.
+            if (scenario.width != SIZE || !scenario.round || scenario.ambient
+                    || scenario.hollow) {
+                continue;
+            }
+            ManualClock clock = new ManualClock(START_TIME);
+            FaceDriver driver = new FaceDriver(RuntimeEnvironment.getApplication(),
+                    Looper.myLooper(), clock, NO_HOST);
+            try {
+                driver.setRound(true);
+                driver.setSurfaceSize(SIZE, SIZE);
+                driver.setDebugOverlayEnabled(true);
+                driver.setComplicationData(CENTER_COMPLICATION_ID,
+                        scenario.getData(CENTER_COMPLICATION_ID));
+                for (int id = RANGED_ID_OFFSET; id < COMPLICATION_IDS.length; id++) {
+                    driver.setComplicationData(id, scenario.getData(id));
+                }
+                driver.setVisible(true);
+                driver.getRenderer().awaitSnapshot();
+
+                drawFrames(driver, clock, canvas, INTERACTIVE_STEP_MS, WARM_FRAMES, counter);
+                check(scenario.name, drawFrames(driver, clock, canvas, INTERACTIVE_STEP_MS,
+                        FRAMES, counter), failures);
+
+                driver.setAmbientMode(true);
+                driver.getRenderer().awaitSnapshot();
+                drawFrames(driver, clock, canvas, AMBIENT_STEP_MS, WARM_FRAMES, counter);
+                check(scenario.name.replace("interactive", "ambient"), drawFrames(driver, clock,
+                        canvas, AMBIENT_STEP_MS, FRAMES, counter), failures);
+            } finally {
+                driver.release();
+            }
+        }
+        bitmap.recycle();
+
+        StringBuilder message = new StringBuilder("Warm frames allocate:");
+        for (String failure : failures) {
+            message.append('\n').append(failure);
+        }
+        assertTrue(message.toString(), failures.isEmpty());
+    }
+
+    private static void check(String name, long allocatedBytes, List<String> failures) {
+        if (allocatedBytes > 0) {
+            failures.add(name + ": " + allocatedBytes + " bytes in " + FRAMES + " frames");
+        }
+    }
+
+    // Returns the bytes the frames allocated on this thread.
+    private static long drawFrames(FaceDriver driver, ManualClock clock, Canvas canvas,
+                                   long stepMillis, int frames, AllocationCounter counter)
+            throws ReflectiveOperationException {
+        long readBytes = counter.getReadBytes();
+        long before = counter.read();
+        for (int i = 0; i < frames; i++) {
+            clock.advance(stepMillis);
+            driver.draw(canvas);
+        }
+        return counter.read() - before - readBytes;
+    }
+
+    /*
+     * The bytes allocated by the current thread, from the ThreadMXBean of the JVM. Looked up by
+     * reflection, the tests are compiled against android.jar, which has no java.lang.management.
+     */
+    private static final class AllocationCounter {
+        private static final int CALIBRATION_READS = 100;
+
+        private final Object threads;
+        private final Method getThreadAllocatedBytes;
+        private final Object[] threadId;
+
+        AllocationCounter() throws ReflectiveOperationException {
+            threads = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean").invoke(null);
+            getThreadAllocatedBytes = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+            threadId = new Object[]{Thread.currentThread().getId()};
+        }
+
+        long read() throws ReflectiveOperationException {
+            return (Long) getThreadAllocatedBytes.invoke(threads, threadId);
+        }
+
+        /*
+         * Returns what a read allocates between the value it returns and the value of the next
+         * read, the boxed result. Once the JIT removes the box a read allocates nothing, so the
+         * most bytes seen is taken; an allocation in every frame is still far above it.
+         */
+        long getReadBytes() throws ReflectiveOperationException {
+            long readBytes = 0;
+            for (int i = 0; i < CALIBRATION_READS; i++) {
+                long before = read();
+                readBytes = Math.max(readBytes, read() - before);
+            }
+            return readBytes;
+        }
+    }
+}
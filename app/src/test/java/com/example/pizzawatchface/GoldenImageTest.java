@@ -0,0 +1,65 @@
+package com.example.pizzawatchface;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Renders every {@link GoldenScenario} with the native graphics of Robolectric and checks the
+ * frames against the goldens in {@code golden/robolectric/} of the debug assets. Run with
+ * ./gradlew check; with -PrecordGoldens the goldens and baselines are recorded into the debug
+ * assets instead.
+ * <p>
+ * The render times depend on the load of the machine, so they are only checked against their
+ * baseline with -PcheckGoldenTimes, and separately from the images.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class GoldenImageTest {
+    // Relative to the app module, where Gradle runs the unit tests.
+    private static final File GOLDEN_DIR = new File("src/debug/assets/golden/robolectric");
+    private static final File ACTUAL_DIR = new File("build/outputs/golden");
+
+    private final boolean record = Boolean.getBoolean("golden.record");
+
+    @Test
+    public void rendersLikeTheGoldens() throws IOException {
+        GoldenCheck check = createCheck();
+        assumeTrue("No goldens recorded for Robolectric yet, record them with"
+                + " ./gradlew :app:testDebugUnitTest -PrecordGoldens", record || check.hasGoldens());
+
+        assertPassed(check.run(record, GoldenCheck.CHECK_IMAGES));
+    }
+
+    @Test
+    public void rendersWithinTheTimingBaseline() throws IOException {
+        assumeTrue("Render times are only checked with -PcheckGoldenTimes",
+                record || Boolean.getBoolean("golden.timing"));
+
+        assertPassed(createCheck().run(record, GoldenCheck.CHECK_TIMES));
+    }
+
+    private GoldenCheck createCheck() {
+        return new GoldenCheck(RuntimeEnvironment.getApplication(),
+                record ? GOLDEN_DIR : ACTUAL_DIR);
+    }
+
+    private static void assertPassed(GoldenCheck.Result result) {
+        StringBuilder message = new StringBuilder(result.toString());
+        for (String failure : result.failures) {
+            message.append('\n').append(failure);
+        }
+        message.append("\nThe images that differ are in ").append(ACTUAL_DIR.getAbsolutePath());
+        assertTrue(message.toString(), result.passed());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pizzawatchface.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Allocation regression gate for the per frame core code: the frame stats, the ranged value math
+ * and the quality governor. Runs {@link FramePathBenchmark} with the JMH GC profiler and exits
+ * with an error if any of it allocates once warm. The drawing itself needs Android, the
+ * Robolectric FrameAllocationTest of the app checks it. Run this with
+ * ./gradlew :benchmark:allocationCheck, it is also part of ./gradlew check.
+ */
+public final class AllocationCheck {
+    // JMH's own bookkeeping shows up as a fraction of a byte per operation.
+    private static final double MAX_BYTES_PER_FRAME = 1.0;
+
+    private AllocationCheck() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FramePathBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(3)
+                .measurementIterations(3)
+                .forks(1)
+                .build();
+
+        boolean failed = false;
+        for (RunResult runResult : new Runner(options).run()) {
+            String benchmark = runResult.getParams().getBenchmark();
+            Result<?> allocations = null;
+            for (String label : runResult.getSecondaryResults().keySet()) {
+                if (label.endsWith("gc.alloc.rate.norm")) {
+                    allocations = runResult.getSecondaryResults().get(label);
+                }
+            }
+
+            if (allocations == null) {
+                System.err.println(benchmark + ": no allocation rate reported");
+                failed = true;
+            } else if (allocations.getScore() > MAX_BYTES_PER_FRAME) {
+                System.err.println(benchmark + " allocates " + allocations.getScore()
+                        + " bytes per frame");
+                failed = true;
+            }
+        }
+
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.pizzawatchface.benchmark;
+
+import com.example.pizzawatchface.core.FrameStats;
+import com.example.pizzawatchface.core.QualityGovernor;
+import com.example.pizzawatchface.core.RangeMath;
+import com.example.pizzawatchface.core.SlotIds;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The core bookkeeping of a frame: timing every phase into the frame stats, the ranged value math
+ * of every arc and feeding the frame cost to the quality governor. Nothing is drawn, the canvas
+ * calls of the renderer need Android; FrameAllocationTest of the app covers them. {@link
+ * AllocationCheck} runs this with the GC profiler and fails if this bookkeeping allocates once
+ * warm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FramePathBenchmark {
+    private final FrameStats stats = new FrameStats();
+    private final QualityGovernor governor = new QualityGovernor(TimeUnit.MILLISECONDS.toNanos(12));
+    private final float[] values = {12, 48, 95, 130};
+    private long frameTime;
+
+    @Benchmark
+    public void frame(Blackhole blackhole) {
+        frameTime += 16;
+        stats.beginFrame(FrameStats.MODE_INTERACTIVE, frameTime);
+
+        stats.begin(FrameStats.PHASE_BACKGROUND);
+        stats.end(FrameStats.PHASE_BACKGROUND);
+        stats.begin(FrameStats.PHASE_CENTER_TEXT);
+        stats.end(FrameStats.PHASE_CENTER_TEXT);
+        stats.begin(FrameStats.PHASE_COMPLICATIONS);
+        stats.end(FrameStats.PHASE_COMPLICATIONS);
+
+        for (int i = 0; i < SlotIds.RANGED_COUNT; i++) {
+            stats.begin(FrameStats.PHASE_ARC + i);
+            blackhole.consume(RangeMath.percent(0, 100, values[i]));
+            stats.end(FrameStats.PHASE_ARC + i);
+        }
+
+        blackhole.consume(governor.record(stats.endFrame()));
+    }
+
+    /**
+     * What the debug overlay reads every frame.
+     */
+    @Benchmark
+    public void overlay(Blackhole blackhole) {
+        blackhole.consume(stats.getHistogram(FrameStats.MODE_INTERACTIVE, FrameStats.PHASE_FRAME)
+                .getPercentileMicros(95));
+        blackhole.consume(stats.getFramesPerMinute(frameTime));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.pizzawatchface.benchmark;
+
+import com.example.pizzawatchface.core.FaceGeometry;
+import com.example.pizzawatchface.core.SlotLayout;
+import com.example.pizzawatchface.core.PolarHitIndex;
+import com.example.pizzawatchface.core.SlotIds;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving taps to slots, for a fixed set of random taps spread over the whole surface.
+ * Compares the {@link PolarHitIndex} lookup with scanning the bounds of every slot, and measures
+ * rebuilding the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitTestBenchmark {
+    private static final int TAP_COUNT = 1024;
+
+    @Param({"280", "360", "454"})
+    public int size;
+
+    // Number of slots with active data, the others can't be tapped.
+    @Param({"1", "4", "7", "11"})
+    public int activeSlots;
+
+    private FaceGeometry geometry;
+    private final PolarHitIndex index = new PolarHitIndex();
+    private int activeMask;
+    private final int[] tapX = new int[TAP_COUNT];
+    private final int[] tapY = new int[TAP_COUNT];
+
+    @Setup
+    public void setUp() {
+        geometry = FaceGeometry.resolve(SlotLayout.PIZZA, size, size, true);
+        activeMask = 0;
+        for (int slot = 0; slot < Math.min(activeSlots, SlotIds.COUNT); slot++) {
+            activeMask |= 1 << slot;
+        }
+
+        index.update(geometry, activeMask);
+
+        // Fixed seed so every run taps the same points.
+        Random random = new Random(42);
+        for (int i = 0; i < TAP_COUNT; i++) {
+            tapX[i] = random.nextInt(size);
+            tapY[i] = random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public void indexLookup(Blackhole blackhole) {
+        for (int i = 0; i < TAP_COUNT; i++) {
+            blackhole.consume(index.slotAt(tapX[i], tapY[i]));
+        }
+    }
+
+    // Scanning the bounds of every active slot, how taps were resolved before the index.
+    @Benchmark
+    public void boundsScan(Blackhole blackhole) {
+        for (int i = 0; i < TAP_COUNT; i++) {
+            int tapped = -1;
+            for (int slot = 0; slot < SlotIds.COUNT; slot++) {
+                if ((activeMask & (1 << slot)) != 0
+                        && geometry.getSlotBounds(slot).contains(tapX[i], tapY[i])) {
+                    tapped = slot;
+                    break;
+                }
+            }
+            blackhole.consume(tapped);
+        }
+    }
+
+    @Benchmark
+    public PolarHitIndex rebuildIndex() {
+        PolarHitIndex rebuilt = new PolarHitIndex();
+        rebuilt.update(geometry, activeMask);
+        return rebuilt;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.pizzawatchface.benchmark;
+
+import com.example.pizzawatchface.core.FaceGeometry;
+import com.example.pizzawatchface.core.GeometryCache;
+import com.example.pizzawatchface.core.SlotLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving the face layout, what a surface change pays for a new size, and of finding it
+ * in the {@link GeometryCache}, what it pays for a size it saw before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutBenchmark {
+
+    // Common round and square watch resolutions.
+    @Param({"280", "320", "360", "390", "416", "454", "480"})
+    public int size;
+
+    private final GeometryCache cache = new GeometryCache(SlotLayout.PIZZA);
+
+    @Benchmark
+    public FaceGeometry computeLayout() {
+        return FaceGeometry.resolve(SlotLayout.PIZZA, size, size, true);
+    }
+
+    @Benchmark
+    public FaceGeometry cachedLayout() {
+        return cache.get(size, size, true);
+    }
+}
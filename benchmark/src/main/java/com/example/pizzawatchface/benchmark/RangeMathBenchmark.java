@@ -0,0 +1,53 @@
+package com.example.pizzawatchface.benchmark;
+
+import com.example.pizzawatchface.core.RangeMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the ranged value math for a mix of regular, out of range and empty ranges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangeMathBenchmark {
+    private static final int VALUE_COUNT = 1024;
+
+    private final float[] minValues = new float[VALUE_COUNT];
+    private final float[] maxValues = new float[VALUE_COUNT];
+    private final float[] values = new float[VALUE_COUNT];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            minValues[i] = random.nextInt(100) - 50;
+            // Every eighth range is empty.
+            maxValues[i] = i % 8 == 0 ? minValues[i] : minValues[i] + random.nextInt(200);
+            values[i] = minValues[i] + random.nextFloat() * 300 - 50;
+        }
+    }
+
+    @Benchmark
+    public void percent(Blackhole blackhole) {
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            blackhole.consume(RangeMath.percent(minValues[i], maxValues[i], values[i]));
+        }
+    }
+}
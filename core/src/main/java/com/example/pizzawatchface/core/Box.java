@@ -0,0 +1,31 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Immutable integer rectangle, the plain Java counterpart of {@code android.graphics.Rect}. The
+ * right and bottom edges are exclusive.
+ */
+public final class Box {
+    public final int left;
+    public final int top;
+    public final int right;
+    public final int bottom;
+
+    public Box(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+
+    public boolean contains(int x, int y) {
+        return left < right && top < bottom && x >= left && x < right && y >= top && y < bottom;
+    }
+}
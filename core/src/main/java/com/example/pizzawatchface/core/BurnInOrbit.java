@@ -0,0 +1,44 @@
+package com.example.pizzawatchface.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deterministic orbit the ambient composition follows on screens with burn-in protection: every
+ * minute the whole face moves to the next of {@link #STEPS} positions on a small circle, so no
+ * pixel stays lit for long. The offsets are computed once, looking one up costs an index.
+ */
+public final class BurnInOrbit {
+    // A few pixels, enough to spread the wear without the face visibly wandering.
+    public static final int RADIUS_PX = 4;
+    public static final int STEPS = 16;
+
+    private static final long MINUTE_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final int[] OFFSETS_X = new int[STEPS];
+    private static final int[] OFFSETS_Y = new int[STEPS];
+
+    static {
+        for (int i = 0; i < STEPS; i++) {
+            double angle = 2 * Math.PI * i / STEPS;
+            OFFSETS_X[i] = (int) Math.round(Math.cos(angle) * RADIUS_PX);
+            OFFSETS_Y[i] = (int) Math.round(Math.sin(angle) * RADIUS_PX);
+        }
+    }
+
+    private BurnInOrbit() {
+    }
+
+    /**
+     * Returns the position on the orbit for a wall-clock time; it changes once per minute.
+     */
+    public static int step(long currentTimeMillis) {
+        return (int) ((currentTimeMillis / MINUTE_MS) % STEPS);
+    }
+
+    public static int offsetX(int step) {
+        return OFFSETS_X[step];
+    }
+
+    public static int offsetY(int step) {
+        return OFFSETS_Y[step];
+    }
+}
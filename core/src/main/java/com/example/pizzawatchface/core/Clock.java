@@ -0,0 +1,30 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Where the face reads the time from. {@link #SYSTEM} on the watch, a {@link ManualClock} when a
+ * run has to be reproducible, like a replay on simulated time.
+ */
+public interface Clock {
+
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * Wall-clock time, as {@link System#currentTimeMillis()}.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Monotonic time for measuring durations, as {@link System#nanoTime()}.
+     */
+    long nanoTime();
+}
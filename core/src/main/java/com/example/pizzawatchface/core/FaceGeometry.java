@@ -0,0 +1,141 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * A {@link SlotLayout} resolved for one surface: the bounds of every complication slot, the arc the
+ * ranged complications are drawn on and the divider lines between the slices.
+ * <p>
+ * Instances are immutable and only hold plain numbers, the watch face turns them into
+ * {@code Rect}s and {@code RectF}s. Use a {@link GeometryCache} rather than resolving the same
+ * surface twice; callers may compare instances by identity to detect layout changes.
+ */
+public final class FaceGeometry {
+    private static final int DIVIDER_LINE_COUNT = 6;
+
+    public final SlotLayout layout;
+    public final int width;
+    public final int height;
+    public final boolean round;
+    public final float centerX;
+    public final float centerY;
+    public final float complicationMargin;
+    public final float centerTextSize;
+
+    // Rectangle the arcs are drawn on and the stroke width of the arcs.
+    public final float arcLeft;
+    public final float arcTop;
+    public final float arcRight;
+    public final float arcBottom;
+    public final float arcThickness;
+
+    private final Box[] slotBounds = new Box[SlotIds.COUNT];
+    private final float[] dividerLines = new float[DIVIDER_LINE_COUNT * 4];
+
+    private FaceGeometry(SlotLayout layout, int width, int height, boolean round) {
+        this.layout = layout;
+        this.width = width;
+        this.height = height;
+        this.round = round;
+        centerX = width / 2f;
+        centerY = height / 2f;
+
+        complicationMargin = width * layout.complicationMargin;
+        centerTextSize = width * layout.centerTextSize;
+
+        arcThickness = width * layout.arcThickness;
+        float arcInset = arcThickness / 2;
+        arcLeft = arcInset;
+        arcTop = arcInset;
+        arcRight = width - arcInset;
+        arcBottom = height - arcInset;
+
+        for (int i = 0; i < SlotIds.COUNT; i++) {
+            SlotLayout.Slot slot = layout.getSlot(i);
+            double angle = Math.toRadians(slot.angle);
+            float slotCenterX = centerX + (float) Math.cos(angle) * slot.radius * width;
+            float slotCenterY = centerY + (float) Math.sin(angle) * slot.radius * width;
+            float halfWidth = slot.width * width / 2;
+            float halfHeight = slot.height * width / 2;
+            slotBounds[i] = new Box(Math.round(slotCenterX - halfWidth),
+                    Math.round(slotCenterY - halfHeight), Math.round(slotCenterX + halfWidth),
+                    Math.round(slotCenterY + halfHeight));
+        }
+
+        float innerRadius = width * layout.dividerInnerRadius;
+        float outerRadius = width / 2f;
+        for (int line = 0; line < DIVIDER_LINE_COUNT; line++) {
+            double angle = Math.toRadians(layout.dividerAngles[line]);
+            float cos = (float) Math.cos(angle);
+            float sin = (float) Math.sin(angle);
+            dividerLines[line * 4] = centerX + cos * innerRadius;
+            dividerLines[line * 4 + 1] = centerY + sin * innerRadius;
+            dividerLines[line * 4 + 2] = centerX + cos * outerRadius;
+            dividerLines[line * 4 + 3] = centerY + sin * outerRadius;
+        }
+    }
+
+    /**
+     * Resolves the layout for a surface. Prefer {@link GeometryCache#get(int, int, boolean)}, which
+     * memoizes the result.
+     */
+    public static FaceGeometry resolve(SlotLayout layout, int width, int height, boolean round) {
+        return new FaceGeometry(layout, width, height, round);
+    }
+
+    /**
+     * Returns the bounds of a slot. For the ranged slots these are the bounds of the icon.
+     */
+    public Box getSlotBounds(int slot) {
+        return slotBounds[slot];
+    }
+
+    public float getArcStartAngle(int rangedIndex) {
+        return layout.getSlot(SlotIds.RANGED_OFFSET + rangedIndex).arcStartAngle;
+    }
+
+    public float getArcSweepAngle(int rangedIndex) {
+        return layout.getSlot(SlotIds.RANGED_OFFSET + rangedIndex).arcSweepAngle;
+    }
+
+    /**
+     * Returns the distance from the center at which the slices start; closer is the center slot.
+     */
+    public float getCenterRadius() {
+        return width * layout.dividerInnerRadius;
+    }
+
+    /**
+     * Returns the slice slot at the given angle (in [0, 360)): the slot whose angle lies between
+     * the same two divider lines.
+     */
+    public int getSliceSlot(float angle) {
+        float[] dividers = layout.dividerAngles;
+        float sliceStart = dividers[dividers.length - 1];
+        float sliceEnd = dividers[0];
+        for (int i = 0; i < dividers.length - 1; i++) {
+            if (angle >= dividers[i] && angle < dividers[i + 1]) {
+                sliceStart = dividers[i];
+                sliceEnd = dividers[i + 1];
+                break;
+            }
+        }
+
+        for (int slot = 0; slot < SlotIds.CENTER; slot++) {
+            float slotAngle = layout.getSlot(slot).angle;
+            boolean inSlice = sliceStart < sliceEnd
+                    ? slotAngle >= sliceStart && slotAngle < sliceEnd
+                    : slotAngle >= sliceStart || slotAngle < sliceEnd;
+            if (inSlice) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the divider lines as consecutive (startX, startY, endX, endY) groups, the format of
+     * {@code Canvas.drawLines}. The array is shared, don't modify it.
+     */
+    public float[] getDividerLines() {
+        return dividerLines;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Fixed-size histogram of durations. Recording and reading never allocate, so it can be used from
+ * inside onDraw.
+ * <p>
+ * Durations are counted in buckets of {@link #BUCKET_WIDTH_US} microseconds, everything above the
+ * last bucket ends up in the last bucket. The maximum is kept exactly.
+ */
+public class FrameHistogram {
+    public static final int BUCKET_WIDTH_US = 100;
+    private static final int BUCKET_COUNT = 500;
+
+    private final int[] buckets = new int[BUCKET_COUNT];
+    private long count;
+    private long maxNanos;
+
+    public void record(long durationNanos) {
+        int bucket = (int) Math.min(BUCKET_COUNT - 1, durationNanos / 1000 / BUCKET_WIDTH_US);
+        buckets[Math.max(0, bucket)]++;
+        count++;
+        maxNanos = Math.max(maxNanos, durationNanos);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxMicros() {
+        return maxNanos / 1000;
+    }
+
+    /**
+     * Returns the upper bound, in microseconds, of the bucket that contains the given percentile.
+     *
+     * @param percentile between 0 and 100.
+     */
+    public long getPercentileMicros(int percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (count * percentile + 99) / 100;
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min((long) (i + 1) * BUCKET_WIDTH_US, getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = 0;
+        }
+        count = 0;
+        maxNanos = 0;
+    }
+}
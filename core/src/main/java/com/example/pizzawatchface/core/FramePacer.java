@@ -0,0 +1,49 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Picks the frame interval and length of animations from the measured cost of a frame.
+ * <p>
+ * Animation frames are spaced so drawing takes at most a quarter of the time, between
+ * {@link #MIN_FRAME_INTERVAL_MS} and {@link #MAX_FRAME_INTERVAL_MS}. An animation is given about
+ * {@link #FRAMES_PER_ANIMATION} frames, so a cheap face animates briefly at a high rate and an
+ * expensive one longer at a lower rate, never running the face flat out for longer than needed.
+ */
+public final class FramePacer {
+    public static final long MIN_FRAME_INTERVAL_MS = 16;
+    public static final long MAX_FRAME_INTERVAL_MS = 100;
+    public static final int FRAMES_PER_ANIMATION = 12;
+    public static final long MIN_ANIMATION_MS = 150;
+    public static final long MAX_ANIMATION_MS = 500;
+
+    // At most one part in DUTY_CYCLE of the time is spent drawing.
+    private static final int DUTY_CYCLE = 4;
+    // Weight of a new measurement in the average, as a shift: 1/8.
+    private static final int SMOOTHING_SHIFT = 3;
+
+    private long averageFrameNanos;
+
+    /**
+     * Adds the cost of a drawn frame to the running average.
+     */
+    public void record(long frameNanos) {
+        if (averageFrameNanos == 0) {
+            averageFrameNanos = frameNanos;
+        } else {
+            averageFrameNanos += (frameNanos - averageFrameNanos) >> SMOOTHING_SHIFT;
+        }
+    }
+
+    public long getAverageFrameNanos() {
+        return averageFrameNanos;
+    }
+
+    public long getFrameIntervalMillis() {
+        long interval = (averageFrameNanos * DUTY_CYCLE + 999999) / 1000000;
+        return Math.max(MIN_FRAME_INTERVAL_MS, Math.min(MAX_FRAME_INTERVAL_MS, interval));
+    }
+
+    public long getAnimationDurationMillis() {
+        long duration = FRAMES_PER_ANIMATION * getFrameIntervalMillis();
+        return Math.max(MIN_ANIMATION_MS, Math.min(MAX_ANIMATION_MS, duration));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.pizzawatchface.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the phases of a frame and keeps them in a {@link FrameHistogram} per phase and render mode.
+ * <p>
+ * Usage from onDraw is {@link #beginFrame(int, long)}, then pairs of {@link #begin(int)} and
+ * {@link #end(int)} around each phase, then {@link #endFrame()}. Nothing here allocates.
+ */
+public class FrameStats {
+    // Filling the background.
+    public static final int PHASE_BACKGROUND = 0;
+    // Blitting the divider layer, including rendering it when needed.
+    public static final int PHASE_DIVIDERS = 1;
+    public static final int PHASE_COMPLICATIONS = 2;
+    public static final int PHASE_CENTER_TEXT = 3;
+    // One phase per ArcComplication, in the order of the ranged complications.
+    public static final int PHASE_ARC = 4;
+    public static final int PHASE_FRAME = PHASE_ARC + 4;
+    public static final int PHASE_COUNT = PHASE_FRAME + 1;
+
+    public static final int MODE_INTERACTIVE = 0;
+    public static final int MODE_AMBIENT = 1;
+    public static final int MODE_HOLLOW = 2;
+    public static final int MODE_COUNT = 3;
+
+    private static final long MINUTE_MS = TimeUnit.MINUTES.toMillis(1);
+    // Enough frame times to count the frames of a minute while an animation runs.
+    private static final int FRAME_TIME_CAPACITY = 256;
+
+    private final Clock clock;
+    private final FrameHistogram[][] histograms = new FrameHistogram[MODE_COUNT][PHASE_COUNT];
+    private final long[] phaseStarts = new long[PHASE_COUNT];
+    private final long[] frameTimes = new long[FRAME_TIME_CAPACITY];
+    private int frameTimeIndex;
+    private int mode;
+
+    public FrameStats() {
+        this(Clock.SYSTEM);
+    }
+
+    /**
+     * @param clock the clock the phases are timed with.
+     */
+    public FrameStats(Clock clock) {
+        this.clock = clock;
+        for (int mode = 0; mode < MODE_COUNT; mode++) {
+            for (int phase = 0; phase < PHASE_COUNT; phase++) {
+                histograms[mode][phase] = new FrameHistogram();
+            }
+        }
+    }
+
+    /**
+     * Starts timing a frame drawn in the given mode at the given wall-clock time.
+     */
+    public void beginFrame(int mode, long currentTimeMillis) {
+        this.mode = mode;
+        frameTimes[frameTimeIndex] = currentTimeMillis;
+        frameTimeIndex = (frameTimeIndex + 1) % FRAME_TIME_CAPACITY;
+        begin(PHASE_FRAME);
+    }
+
+    /**
+     * Returns the duration of the frame in nanoseconds.
+     */
+    public long endFrame() {
+        return end(PHASE_FRAME);
+    }
+
+    public void begin(int phase) {
+        phaseStarts[phase] = clock.nanoTime();
+    }
+
+    /**
+     * Returns the duration of the phase in nanoseconds.
+     */
+    public long end(int phase) {
+        long durationNanos = clock.nanoTime() - phaseStarts[phase];
+        histograms[mode][phase].record(durationNanos);
+        return durationNanos;
+    }
+
+    public int getMode() {
+        return mode;
+    }
+
+    public FrameHistogram getHistogram(int mode, int phase) {
+        return histograms[mode][phase];
+    }
+
+    /**
+     * Returns the number of frames drawn in the minute before the given time.
+     */
+    public int getFramesPerMinute(long currentTimeMillis) {
+        int frames = 0;
+        for (long frameTime : frameTimes) {
+            if (frameTime != 0 && currentTimeMillis - frameTime < MINUTE_MS) {
+                frames++;
+            }
+        }
+        return frames;
+    }
+
+    public void reset() {
+        for (FrameHistogram[] modeHistograms : histograms) {
+            for (FrameHistogram histogram : modeHistograms) {
+                histogram.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Memoizes the {@link FaceGeometry} of a layout per (width, height, shape), so switching faces or
+ * showing previews at a size that was seen before doesn't resolve the layout again. Returning the
+ * same instance also lets callers skip all work that depends on the geometry.
+ * <p>
+ * Only the few most recently used surfaces are kept. Safe to use from several threads.
+ */
+public final class GeometryCache {
+    private static final int CAPACITY = 4;
+
+    private final SlotLayout layout;
+    private final FaceGeometry[] entries = new FaceGeometry[CAPACITY];
+    private final long[] lastUsed = new long[CAPACITY];
+    private long useCounter;
+
+    public GeometryCache(SlotLayout layout) {
+        this.layout = layout;
+    }
+
+    public synchronized FaceGeometry get(int width, int height, boolean round) {
+        int leastRecentlyUsed = 0;
+        for (int i = 0; i < CAPACITY; i++) {
+            FaceGeometry entry = entries[i];
+            if (entry != null && entry.width == width && entry.height == height
+                    && entry.round == round) {
+                lastUsed[i] = ++useCounter;
+                return entry;
+            }
+            if (lastUsed[i] < lastUsed[leastRecentlyUsed]) {
+                leastRecentlyUsed = i;
+            }
+        }
+
+        FaceGeometry geometry = FaceGeometry.resolve(layout, width, height, round);
+        entries[leastRecentlyUsed] = geometry;
+        lastUsed[leastRecentlyUsed] = ++useCounter;
+        return geometry;
+    }
+}
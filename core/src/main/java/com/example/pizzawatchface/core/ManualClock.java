@@ -0,0 +1,43 @@
+package com.example.pizzawatchface.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A clock that only moves when told to. Its {@link #nanoTime()} follows the wall-clock time, so
+ * durations measured within a frame are zero and whatever adapts to frame costs, like the
+ * {@link FramePacer} and the {@link QualityGovernor}, behaves the same on every run.
+ * <p>
+ * Reads are thread safe, so workers of the face can read it while a replay moves it.
+ */
+public final class ManualClock implements Clock {
+    private volatile long timeMillis;
+
+    public ManualClock(long timeMillis) {
+        this.timeMillis = timeMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return timeMillis;
+    }
+
+    @Override
+    public long nanoTime() {
+        return TimeUnit.MILLISECONDS.toNanos(timeMillis);
+    }
+
+    /**
+     * Moves the clock to the given time. Going back in time is not allowed.
+     */
+    public void setTime(long timeMillis) {
+        if (timeMillis < this.timeMillis) {
+            throw new IllegalArgumentException("Can't go back from " + this.timeMillis + " to "
+                    + timeMillis);
+        }
+        this.timeMillis = timeMillis;
+    }
+
+    public void advance(long millis) {
+        setTime(timeMillis + millis);
+    }
+}
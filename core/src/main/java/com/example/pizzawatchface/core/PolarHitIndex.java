@@ -0,0 +1,151 @@
+package com.example.pizzawatchface.core;
+
+import java.util.Arrays;
+
+/**
+ * Resolves taps to complication slots in constant time, following the slices of the
+ * {@link SlotLayout} rather than only the bounding boxes of the slots.
+ * <p>
+ * A tap resolves to the first of:
+ * <ol>
+ * <li>the active arc it is on: the outer ring, from one arc thickness inside the stroke to the
+ * edge of the surface, within the angles of the arc;</li>
+ * <li>the first active slot whose bounds contain it, which is where the complication or the icon
+ * of an arc is drawn. The icons are drawn over the slices, so they come first, then the other
+ * slots by id;</li>
+ * <li>the center slot if it is close to the center, otherwise the slice it is in, the area
+ * between two divider lines.</li>
+ * </ol>
+ * The arcs and slices are looked up by the angle of the tap in {@link #BUCKET_COUNT} angular
+ * buckets, precomputed by {@link #update(FaceGeometry, int)}, which only does work when the
+ * layout or the set of active slots changed. At most {@link SlotIds#COUNT} bounds are checked.
+ */
+public final class PolarHitIndex {
+    // Half degree buckets, so the slice borders and arc ends of the pizza layout fall on bucket
+    // edges.
+    public static final int BUCKET_COUNT = 720;
+    private static final float BUCKETS_PER_DEGREE = BUCKET_COUNT / 360f;
+
+    // The ring reaches one arc thickness inside the stroke, the stroke alone is too thin for a
+    // finger.
+    private static final float RING_INSET_IN_ARC_THICKNESS = 1;
+
+    // The slot of every bucket on the ring, and off it, -1 where no active slot is.
+    private final int[] arcSlots = new int[BUCKET_COUNT];
+    private final int[] sliceSlots = new int[BUCKET_COUNT];
+    private int centerSlot;
+    // The bounds of the active slots, in the order they are checked in.
+    private final Box[] bounds = new Box[SlotIds.COUNT];
+    private final int[] boundsSlots = new int[SlotIds.COUNT];
+    private int boundsCount;
+
+    private FaceGeometry geometry;
+    private int activeMask;
+    private float centerX;
+    private float centerY;
+    private float centerRadiusSquared;
+    private float ringRadiusSquared;
+
+    /**
+     * Rebuilds the index if the layout or the active slots changed.
+     *
+     * @param activeMask bit {@code 1 << slot} is set for every slot that can be tapped.
+     * @return true if the index was rebuilt.
+     */
+    public boolean update(FaceGeometry geometry, int activeMask) {
+        if (this.geometry == geometry && this.activeMask == activeMask) {
+            return false;
+        }
+        this.geometry = geometry;
+        this.activeMask = activeMask;
+
+        centerX = geometry.centerX;
+        centerY = geometry.centerY;
+        float centerRadius = geometry.getCenterRadius();
+        float ringRadius = getRingRadius(geometry);
+        centerRadiusSquared = centerRadius * centerRadius;
+        ringRadiusSquared = ringRadius * ringRadius;
+        centerSlot = isActive(activeMask, SlotIds.CENTER) ? SlotIds.CENTER : -1;
+
+        boundsCount = 0;
+        for (int i = 0; i < SlotIds.COUNT; i++) {
+            int slot = (SlotIds.RANGED_OFFSET + i) % SlotIds.COUNT;
+            if (isActive(activeMask, slot)) {
+                bounds[boundsCount] = geometry.getSlotBounds(slot);
+                boundsSlots[boundsCount] = slot;
+                boundsCount++;
+            }
+        }
+
+        Arrays.fill(arcSlots, -1);
+        // Backwards, so where arcs overlap the first one wins.
+        for (int i = SlotIds.RANGED_COUNT - 1; i >= 0; i--) {
+            if (isActive(activeMask, SlotIds.RANGED_OFFSET + i)) {
+                fillArc(geometry, i);
+            }
+        }
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            float angle = (bucket + 0.5f) / BUCKETS_PER_DEGREE;
+            int slice = geometry.getSliceSlot(angle);
+            sliceSlots[bucket] = slice >= 0 && isActive(activeMask, slice) ? slice : -1;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot at the point, or -1 if there is no active slot there.
+     */
+    public int slotAt(int x, int y) {
+        if (geometry == null) {
+            return -1;
+        }
+        float dx = x - centerX;
+        float dy = y - centerY;
+        float distanceSquared = dx * dx + dy * dy;
+        int bucket = Math.min((int) (angleOf(dx, dy) * BUCKETS_PER_DEGREE), BUCKET_COUNT - 1);
+
+        if (distanceSquared >= ringRadiusSquared && arcSlots[bucket] >= 0) {
+            return arcSlots[bucket];
+        }
+        for (int i = 0; i < boundsCount; i++) {
+            if (bounds[i].contains(x, y)) {
+                return boundsSlots[i];
+            }
+        }
+        return distanceSquared < centerRadiusSquared ? centerSlot : sliceSlots[bucket];
+    }
+
+    /*
+     * Assigns the buckets whose middle lies on the arc to its slot. The arc may start anywhere
+     * and cross 0 degrees, the buckets wrap around.
+     */
+    private void fillArc(FaceGeometry geometry, int rangedIndex) {
+        float start = geometry.getArcStartAngle(rangedIndex) % 360;
+        if (start < 0) {
+            start += 360;
+        }
+        float end = start + geometry.getArcSweepAngle(rangedIndex);
+        int first = (int) Math.ceil(start * BUCKETS_PER_DEGREE - 0.5f);
+        int count = Math.min((int) Math.ceil(end * BUCKETS_PER_DEGREE - 0.5f) - first,
+                BUCKET_COUNT);
+        for (int i = 0; i < count; i++) {
+            arcSlots[(first + i) % BUCKET_COUNT] = SlotIds.RANGED_OFFSET + rangedIndex;
+        }
+    }
+
+    private static float getRingRadius(FaceGeometry geometry) {
+        float arcRadius = (geometry.arcRight - geometry.arcLeft) / 2;
+        return arcRadius - geometry.arcThickness / 2
+                - geometry.arcThickness * RING_INSET_IN_ARC_THICKNESS;
+    }
+
+    private static boolean isActive(int activeMask, int slot) {
+        return (activeMask & (1 << slot)) != 0;
+    }
+
+    // Angle in [0, 360) degrees, clockwise from 3 o'clock like Canvas.drawArc.
+    private static float angleOf(float dx, float dy) {
+        float angle = (float) Math.toDegrees(Math.atan2(dy, dx));
+        return angle < 0 ? angle + 360 : angle;
+    }
+}
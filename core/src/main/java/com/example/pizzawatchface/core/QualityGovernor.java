@@ -0,0 +1,91 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Trades render quality for frame time on devices that can't draw the face within budget.
+ * <p>
+ * Interactive frame costs are collected in windows of {@link #WINDOW_FRAMES} frames. A window
+ * whose average is over the budget steps down one tier: first the arc shadows go, then the
+ * anti-aliasing of the arcs, then the divider lines. Stepping back up takes
+ * {@link #WINDOWS_TO_STEP_UP} windows in a row under half the budget, so the tier doesn't flip
+ * back and forth around the threshold. The window right after a change is skipped, since it
+ * includes rebuilding the cached layers for the new tier. Nothing here allocates.
+ */
+public final class QualityGovernor {
+    public static final int TIER_FULL = 0;
+    public static final int TIER_NO_SHADOWS = 1;
+    public static final int TIER_NO_ANTI_ALIAS = 2;
+    public static final int TIER_NO_DIVIDERS = 3;
+    public static final int TIER_COUNT = 4;
+
+    public static final int WINDOW_FRAMES = 8;
+    public static final int WINDOWS_TO_STEP_UP = 4;
+
+    private final long budgetNanos;
+    private int tier = TIER_FULL;
+    private long windowNanos;
+    private int windowFrames;
+    private int goodWindows;
+    private boolean skipWindow;
+
+    /**
+     * @param budgetNanos what an interactive frame may cost on average.
+     */
+    public QualityGovernor(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    public int getTier() {
+        return tier;
+    }
+
+    /**
+     * Adds the cost of an interactive frame.
+     *
+     * @return true if the tier changed.
+     */
+    public boolean record(long frameNanos) {
+        windowNanos += frameNanos;
+        if (++windowFrames < WINDOW_FRAMES) {
+            return false;
+        }
+        long averageNanos = windowNanos / windowFrames;
+        windowNanos = 0;
+        windowFrames = 0;
+
+        if (skipWindow) {
+            skipWindow = false;
+            return false;
+        }
+
+        if (averageNanos > budgetNanos) {
+            goodWindows = 0;
+            return setTier(tier + 1);
+        }
+        if (averageNanos < budgetNanos / 2 && ++goodWindows >= WINDOWS_TO_STEP_UP) {
+            goodWindows = 0;
+            return setTier(tier - 1);
+        }
+        if (averageNanos >= budgetNanos / 2) {
+            goodWindows = 0;
+        }
+        return false;
+    }
+
+    public void reset() {
+        tier = TIER_FULL;
+        windowNanos = 0;
+        windowFrames = 0;
+        goodWindows = 0;
+        skipWindow = false;
+    }
+
+    private boolean setTier(int newTier) {
+        newTier = Math.max(TIER_FULL, Math.min(TIER_COUNT - 1, newTier));
+        if (newTier == tier) {
+            return false;
+        }
+        tier = newTier;
+        skipWindow = true;
+        return true;
+    }
+}
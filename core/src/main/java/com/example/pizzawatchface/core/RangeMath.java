@@ -0,0 +1,24 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Math for ranged complication values.
+ */
+public final class RangeMath {
+
+    private RangeMath() {
+    }
+
+    /**
+     * Translates the current value to a percentage between 0 and 1. An empty range is 0.
+     */
+    public static float percent(float minValue, float maxValue, float value) {
+        float range = Math.abs(maxValue - minValue);
+        if (range <= 0) {
+            return 0;
+        }
+
+        // We don't want to deal progress values outside 0-100.
+        float percent = (value - minValue) / range;
+        return Math.min(1f, Math.max(0f, percent));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Ids of the complication slots of the face. The ids are also indexes into the per slot arrays of
+ * the watch face and of {@link FaceGeometry}.
+ */
+public final class SlotIds {
+    public static final int RIGHT = 0;
+    public static final int TOP_RIGHT = 1;
+    public static final int TOP = 2;
+    public static final int TOP_LEFT = 3;
+    public static final int LEFT = 4;
+    public static final int BOTTOM = 5;
+    public static final int CENTER = 6;
+    public static final int TOP_RIGHT_RANGED = 7;
+    public static final int BOTTOM_RIGHT_RANGED = 8;
+    public static final int BOTTOM_LEFT_RANGED = 9;
+    public static final int TOP_LEFT_RANGED = 10;
+
+    public static final int COUNT = 11;
+
+    // The ranged (arc) slots come last, in clockwise order starting at the top right.
+    public static final int RANGED_OFFSET = TOP_RIGHT_RANGED;
+    public static final int RANGED_COUNT = 4;
+
+    private SlotIds() {
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Declarative description of the face layout, independent of the surface size.
+ * <p>
+ * Every slot is placed in polar coordinates around the center of the face: the angle and distance
+ * of its center, plus its size. The ranged slots additionally describe the arc they are drawn on.
+ * All lengths are fractions of the surface width; angles are in degrees clockwise from 3 o'clock,
+ * like {@code Canvas.drawArc}. {@link FaceGeometry} resolves a layout for a concrete surface.
+ */
+public final class SlotLayout {
+
+    /**
+     * Placement of one slot. For the ranged slots this is the placement of their icon.
+     */
+    public static final class Slot {
+        public final float angle;
+        public final float radius;
+        public final float width;
+        public final float height;
+        // Arc of a ranged slot, sweep 0 for the other slots.
+        public final float arcStartAngle;
+        public final float arcSweepAngle;
+
+        Slot(float angle, float radius, float width, float height,
+             float arcStartAngle, float arcSweepAngle) {
+            this.angle = angle;
+            this.radius = radius;
+            this.width = width;
+            this.height = height;
+            this.arcStartAngle = arcStartAngle;
+            this.arcSweepAngle = arcSweepAngle;
+        }
+    }
+
+    private static final float DIAGONAL = (float) (0.25 * Math.sqrt(2));
+    private static final float ARC_THICKNESS = 1 / 20f;
+    // The arcs run along the edge, their icon sits on the arc just before its start.
+    private static final float ARC_RADIUS = 0.5f - ARC_THICKNESS / 2;
+
+    /**
+     * The pizza layout: six slices around a center slot, with four arcs along the edge.
+     */
+    public static final SlotLayout PIZZA = new SlotLayout(
+            new Slot[]{
+                    slot(0, 0.375f, 0.25f, 0.25f),          // RIGHT
+                    slot(315, DIAGONAL, 0.25f, 0.25f),      // TOP_RIGHT
+                    slot(270, 0.3125f, 0.25f, 0.375f),      // TOP
+                    slot(225, DIAGONAL, 0.25f, 0.25f),      // TOP_LEFT
+                    slot(180, 0.375f, 0.25f, 0.25f),        // LEFT
+                    slot(90, 0.25f, 0.75f, 0.25f),          // BOTTOM
+                    slot(0, 0, 0.5f, 0.25f),                // CENTER
+                    arc(280, 70),                           // TOP_RIGHT_RANGED
+                    arc(10, 70),                            // BOTTOM_RIGHT_RANGED
+                    arc(100, 70),                           // BOTTOM_LEFT_RANGED
+                    arc(190, 70)                            // TOP_LEFT_RANGED
+            },
+            new float[]{22.5f, 157.5f, 202.5f, 247.5f, 292.5f, 337.5f},
+            0.25f, ARC_THICKNESS, 1 / 8f, 1 / 72f);
+
+    final Slot[] slots;
+    // Angles of the divider lines between the slices, ascending.
+    final float[] dividerAngles;
+    // The divider lines start this far from the center and end at the edge.
+    final float dividerInnerRadius;
+    final float arcThickness;
+    final float centerTextSize;
+    final float complicationMargin;
+
+    SlotLayout(Slot[] slots, float[] dividerAngles, float dividerInnerRadius,
+                       float arcThickness, float centerTextSize, float complicationMargin) {
+        this.slots = slots;
+        this.dividerAngles = dividerAngles;
+        this.dividerInnerRadius = dividerInnerRadius;
+        this.arcThickness = arcThickness;
+        this.centerTextSize = centerTextSize;
+        this.complicationMargin = complicationMargin;
+    }
+
+    public Slot getSlot(int slot) {
+        return slots[slot];
+    }
+
+    private static Slot slot(float angle, float radius, float width, float height) {
+        return new Slot(angle, radius, width, height, 0, 0);
+    }
+
+    private static Slot arc(float startAngle, float sweepAngle) {
+        return new Slot(startAngle - 10, ARC_RADIUS, ARC_THICKNESS, ARC_THICKNESS,
+                startAngle, sweepAngle);
+    }
+}
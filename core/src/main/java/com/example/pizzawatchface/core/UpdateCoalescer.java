@@ -0,0 +1,99 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Turns bursts of complication updates into single frames.
+ * <p>
+ * Updates are counted when they arrive, but only ask for a frame once they can be drawn. A frame
+ * is asked for no sooner than the minimum interval of the current mode after the last frame, and
+ * while it is on its way further requests ask for nothing: any number of updates within the
+ * interval are drawn by one frame. Frames drawn for other reasons, like the minute tick, take the
+ * pending request with them. The updates received and the frames drawn for them are counted, so
+ * the savings can be shown. Nothing here allocates.
+ */
+public final class UpdateCoalescer {
+    /**
+     * Returned when a frame is already on its way.
+     */
+    public static final long NO_FRAME = Long.MAX_VALUE;
+
+    private long interactiveIntervalMillis;
+    private long ambientIntervalMillis;
+    private boolean ambient;
+    private long lastFrameTime = Long.MIN_VALUE;
+    private boolean pending;
+    private long updates;
+    private long updateFrames;
+
+    /**
+     * @param interactiveIntervalMillis the minimum time between the frames of updates in
+     *                                  interactive mode, typically a frame.
+     * @param ambientIntervalMillis the same in ambient mode, where every frame wakes the device.
+     */
+    public UpdateCoalescer(long interactiveIntervalMillis, long ambientIntervalMillis) {
+        this.interactiveIntervalMillis = interactiveIntervalMillis;
+        this.ambientIntervalMillis = ambientIntervalMillis;
+    }
+
+    public void setMinInterval(boolean ambient, long intervalMillis) {
+        if (ambient) {
+            ambientIntervalMillis = intervalMillis;
+        } else {
+            interactiveIntervalMillis = intervalMillis;
+        }
+    }
+
+    public void setAmbient(boolean ambient) {
+        this.ambient = ambient;
+    }
+
+    /**
+     * Counts an update. The frame for it is asked for with {@link #requestFrame(long)} once its
+     * data is ready to be drawn.
+     */
+    public void onUpdate() {
+        updates++;
+    }
+
+    /**
+     * Returns when a frame should be drawn for what changed, {@link #NO_FRAME} if one is already
+     * on its way.
+     */
+    public long requestFrame(long currentTimeMillis) {
+        if (pending) {
+            return NO_FRAME;
+        }
+        pending = true;
+        long interval = ambient ? ambientIntervalMillis : interactiveIntervalMillis;
+        if (lastFrameTime == Long.MIN_VALUE) {
+            return currentTimeMillis;
+        }
+        return Math.max(currentTimeMillis, lastFrameTime + interval);
+    }
+
+    /**
+     * Records a frame, whatever it was drawn for.
+     */
+    public void onFrameDrawn(long currentTimeMillis) {
+        lastFrameTime = currentTimeMillis;
+        if (pending) {
+            pending = false;
+            updateFrames++;
+        }
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    /**
+     * Returns the frames that were asked for with {@link #requestFrame(long)}.
+     */
+    public long getUpdateFrames() {
+        return updateFrames;
+    }
+
+    public void resetCounters() {
+        updates = 0;
+        updateFrames = 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.pizzawatchface.core;
+
+/**
+ * Eased transition of a single value, evaluated against the frame time. It holds no timer of its
+ * own: it is running until its end time passes and settles on the target afterwards, so whoever
+ * draws it stops asking for frames on their own. Nothing here allocates.
+ */
+public final class ValueAnimation {
+    private float from;
+    private float to;
+    private long startTime;
+    private long durationMillis;
+
+    /**
+     * Starts moving from the value shown at the given time to the target. Retargeting a running
+     * animation continues from where it is, without a jump.
+     */
+    public void animateTo(float target, long currentTimeMillis, long durationMillis) {
+        from = valueAt(currentTimeMillis);
+        to = target;
+        startTime = currentTimeMillis;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Moves to the target right away, ending any running animation.
+     */
+    public void jumpTo(float target) {
+        from = target;
+        to = target;
+        durationMillis = 0;
+    }
+
+    public float getTarget() {
+        return to;
+    }
+
+    public boolean isRunning(long currentTimeMillis) {
+        return currentTimeMillis < startTime + durationMillis;
+    }
+
+    public float valueAt(long currentTimeMillis) {
+        if (!isRunning(currentTimeMillis)) {
+            return to;
+        }
+        float t = Math.max(0, currentTimeMillis - startTime) / (float) durationMillis;
+        // Cubic ease out: starts quickly and settles gently on the new value.
+        float remaining = 1 - t;
+        return from + (to - from) * (1 - remaining * remaining * remaining);
+    }
+}
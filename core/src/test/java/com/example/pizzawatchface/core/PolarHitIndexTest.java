@@ -0,0 +1,312 @@
+package com.example.pizzawatchface.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PolarHitIndexTest {
+    private static final int[] SIZES = {280, 320, 360, 390, 416, 454, 480};
+    private static final int ALL_SLOTS = (1 << SlotIds.COUNT) - 1;
+    private static final int RANGED_SLOTS = ALL_SLOTS & ~((1 << SlotIds.RANGED_OFFSET) - 1);
+    private static final int[] ACTIVE_MASKS = {
+            ALL_SLOTS,
+            0,
+            1 << SlotIds.CENTER,
+            // Only the ranged slots, so taps next to the arcs fall through to nothing.
+            RANGED_SLOTS,
+            // No ranged slots, so the outer ring belongs to the slices.
+            ALL_SLOTS & ~RANGED_SLOTS,
+            0x2AA,
+            0x555
+    };
+    private static final int RANDOM_TAPS = 20000;
+    private static final int[] BOUNDS_ORDER = {
+            SlotIds.TOP_RIGHT_RANGED, SlotIds.BOTTOM_RIGHT_RANGED, SlotIds.BOTTOM_LEFT_RANGED,
+            SlotIds.TOP_LEFT_RANGED, SlotIds.RIGHT, SlotIds.TOP_RIGHT, SlotIds.TOP,
+            SlotIds.TOP_LEFT, SlotIds.LEFT, SlotIds.BOTTOM, SlotIds.CENTER
+    };
+
+    // Turned so the top right arc crosses 0 degrees.
+    private static final SlotLayout TURNED_PIZZA = turn(SlotLayout.PIZZA, 45);
+
+    private final PolarHitIndex index = new PolarHitIndex();
+
+    @Test
+    public void centerOfTheFaceIsTheCenterSlot() {
+        FaceGeometry geometry = resolve(454);
+        index.update(geometry, ALL_SLOTS);
+
+        assertEquals(SlotIds.CENTER, index.slotAt(227, 227));
+    }
+
+    @Test
+    public void middleOfAnArcIsTheRangedSlot() {
+        FaceGeometry geometry = resolve(454);
+        index.update(geometry, ALL_SLOTS);
+
+        // The top right arc runs from 280 to 350 degrees, its middle is at 315.
+        int offset = Math.round((227 - geometry.arcThickness) * (float) Math.sqrt(0.5));
+        assertEquals(SlotIds.TOP_RIGHT_RANGED, index.slotAt(227 + offset, 227 - offset));
+    }
+
+    @Test
+    public void iconOfAnArcIsTheRangedSlot() {
+        FaceGeometry geometry = resolve(454);
+        index.update(geometry, ALL_SLOTS);
+
+        for (int i = 0; i < SlotIds.RANGED_COUNT; i++) {
+            Box icon = geometry.getSlotBounds(SlotIds.RANGED_OFFSET + i);
+            assertEquals(SlotIds.RANGED_OFFSET + i, index.slotAt(icon.left + icon.width() / 2,
+                    icon.top + icon.height() / 2));
+        }
+    }
+
+    @Test
+    public void cornerOfTheBottomSlotOutsideItsSliceIsTheBottomSlot() {
+        FaceGeometry geometry = resolve(454);
+        index.update(geometry, ALL_SLOTS);
+        Box bottom = geometry.getSlotBounds(SlotIds.BOTTOM);
+
+        assertEquals(SlotIds.BOTTOM, index.slotAt(bottom.right - 1, bottom.top));
+        assertEquals(SlotIds.BOTTOM, index.slotAt(bottom.left, bottom.top));
+    }
+
+    @Test
+    public void inactiveSlotsAreNotTapped() {
+        FaceGeometry geometry = resolve(454);
+        index.update(geometry, 0);
+
+        assertEquals(-1, index.slotAt(227, 227));
+        assertEquals(-1, index.slotAt(0, 0));
+    }
+
+    @Test
+    public void updateOnlyRebuildsOnChanges() {
+        FaceGeometry geometry = resolve(454);
+
+        assertEquals(true, index.update(geometry, ALL_SLOTS));
+        assertEquals(false, index.update(geometry, ALL_SLOTS));
+        assertEquals(true, index.update(geometry, ALL_SLOTS & ~1));
+        assertEquals(true, index.update(resolve(454), ALL_SLOTS & ~1));
+    }
+
+    @Test
+    public void matchesTheOracleOnRandomTaps() {
+        Random random = new Random(42);
+        for (int size : SIZES) {
+            checkRandomTaps(resolve(size), random);
+        }
+    }
+
+    @Test
+    public void matchesTheOracleAroundTheSeams() {
+        for (int size : SIZES) {
+            checkSeams(resolve(size));
+        }
+    }
+
+    @Test
+    public void matchesTheOracleOnEveryPixel() {
+        checkEveryPixel(resolve(454));
+    }
+
+    @Test
+    public void arcAcrossZeroDegreesIsTappableOnBothSides() {
+        FaceGeometry geometry = FaceGeometry.resolve(TURNED_PIZZA, 454, 454, true);
+        index.update(geometry, ALL_SLOTS);
+
+        // The top right arc now runs from 325 across 0 to 35 degrees.
+        float radius = (geometry.arcRight - geometry.arcLeft) / 2;
+        for (float degrees : new float[]{326, 359.5f, 0.25f, 34}) {
+            double angle = Math.toRadians(degrees);
+            assertEquals(SlotIds.TOP_RIGHT_RANGED, index.slotAt(
+                    Math.round(geometry.centerX + (float) Math.cos(angle) * radius),
+                    Math.round(geometry.centerY + (float) Math.sin(angle) * radius)));
+        }
+    }
+
+    @Test
+    public void matchesTheOracleWithAnArcAcrossZeroDegrees() {
+        Random random = new Random(42);
+        for (int size : SIZES) {
+            FaceGeometry geometry = FaceGeometry.resolve(TURNED_PIZZA, size, size, true);
+            checkRandomTaps(geometry, random);
+            checkSeams(geometry);
+        }
+        checkEveryPixel(FaceGeometry.resolve(TURNED_PIZZA, 454, 454, true));
+    }
+
+    private static FaceGeometry resolve(int size) {
+        return FaceGeometry.resolve(SlotLayout.PIZZA, size, size, true);
+    }
+
+    // The pizza layout turned clockwise, arcs, slots and dividers alike.
+    private static SlotLayout turn(SlotLayout layout, float degrees) {
+        SlotLayout.Slot[] slots = new SlotLayout.Slot[layout.slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            SlotLayout.Slot slot = layout.slots[i];
+            slots[i] = new SlotLayout.Slot((slot.angle + degrees) % 360, slot.radius, slot.width,
+                    slot.height, (slot.arcStartAngle + degrees) % 360, slot.arcSweepAngle);
+        }
+        float[] dividers = new float[layout.dividerAngles.length];
+        for (int i = 0; i < dividers.length; i++) {
+            dividers[i] = (layout.dividerAngles[i] + degrees) % 360;
+        }
+        Arrays.sort(dividers);
+        return new SlotLayout(slots, dividers, layout.dividerInnerRadius, layout.arcThickness,
+                layout.centerTextSize, layout.complicationMargin);
+    }
+
+    private void checkRandomTaps(FaceGeometry geometry, Random random) {
+        for (int activeMask : ACTIVE_MASKS) {
+            index.update(geometry, activeMask);
+            for (int i = 0; i < RANDOM_TAPS; i++) {
+                check(geometry, activeMask, random.nextInt(geometry.width),
+                        random.nextInt(geometry.height));
+            }
+        }
+    }
+
+    private void checkSeams(FaceGeometry geometry) {
+        float[] radii = {
+                geometry.getCenterRadius() - 1, geometry.getCenterRadius(),
+                geometry.getCenterRadius() + 1,
+                getRingRadius(geometry) - 1, getRingRadius(geometry),
+                getRingRadius(geometry) + 1,
+                // On the arc stroke, on the edge of the surface and in the corners beyond.
+                (geometry.arcRight - geometry.arcLeft) / 2, geometry.width / 2f - 1,
+                geometry.width / 2f, geometry.width / 2f * (float) Math.sqrt(2) - 1
+        };
+        for (int activeMask : ACTIVE_MASKS) {
+            index.update(geometry, activeMask);
+            for (float seam : getSeamAngles(geometry)) {
+                for (float delta = -1; delta <= 1; delta += 0.125f) {
+                    double angle = Math.toRadians(seam + delta);
+                    for (float radius : radii) {
+                        checkNear(geometry, activeMask,
+                                geometry.centerX + (float) Math.cos(angle) * radius,
+                                geometry.centerY + (float) Math.sin(angle) * radius);
+                    }
+                }
+            }
+            for (int slot = 0; slot < SlotIds.COUNT; slot++) {
+                Box bounds = geometry.getSlotBounds(slot);
+                for (int x = bounds.left - 1; x <= bounds.right; x++) {
+                    checkInside(geometry, activeMask, x, bounds.top - 1);
+                    checkInside(geometry, activeMask, x, bounds.top);
+                    checkInside(geometry, activeMask, x, bounds.bottom - 1);
+                    checkInside(geometry, activeMask, x, bounds.bottom);
+                }
+                for (int y = bounds.top - 1; y <= bounds.bottom; y++) {
+                    checkInside(geometry, activeMask, bounds.left - 1, y);
+                    checkInside(geometry, activeMask, bounds.left, y);
+                    checkInside(geometry, activeMask, bounds.right - 1, y);
+                    checkInside(geometry, activeMask, bounds.right, y);
+                }
+            }
+        }
+    }
+
+    private void checkEveryPixel(FaceGeometry geometry) {
+        for (int activeMask : ACTIVE_MASKS) {
+            index.update(geometry, activeMask);
+            for (int y = 0; y < geometry.height; y++) {
+                for (int x = 0; x < geometry.width; x++) {
+                    check(geometry, activeMask, x, y);
+                }
+            }
+        }
+    }
+
+    // The divider lines and the ends of the arcs.
+    private static float[] getSeamAngles(FaceGeometry geometry) {
+        float[] lines = geometry.getDividerLines();
+        int dividerCount = lines.length / 4;
+        float[] seams = new float[dividerCount + SlotIds.RANGED_COUNT * 2];
+        for (int i = 0; i < dividerCount; i++) {
+            seams[i] = (float) Math.toDegrees(Math.atan2(lines[i * 4 + 3] - lines[i * 4 + 1],
+                    lines[i * 4 + 2] - lines[i * 4]));
+        }
+        for (int i = 0; i < SlotIds.RANGED_COUNT; i++) {
+            seams[dividerCount + i * 2] = geometry.getArcStartAngle(i);
+            seams[dividerCount + i * 2 + 1] =
+                    geometry.getArcStartAngle(i) + geometry.getArcSweepAngle(i);
+        }
+        return seams;
+    }
+
+    private void checkNear(FaceGeometry geometry, int activeMask, float x, float y) {
+        checkInside(geometry, activeMask, (int) Math.floor(x), (int) Math.floor(y));
+        checkInside(geometry, activeMask, (int) Math.ceil(x), (int) Math.ceil(y));
+    }
+
+    private void checkInside(FaceGeometry geometry, int activeMask, int x, int y) {
+        if (x >= 0 && y >= 0 && x < geometry.width && y < geometry.height) {
+            check(geometry, activeMask, x, y);
+        }
+    }
+
+    private void check(FaceGeometry geometry, int activeMask, int x, int y) {
+        int expected = oracle(geometry, activeMask, x, y);
+        int actual = index.slotAt(x, y);
+        if (expected != actual) {
+            fail("Size " + geometry.width + ", active slots 0x" + Integer.toHexString(activeMask)
+                    + ": tap at " + x + "," + y + " resolved to " + actual + " instead of "
+                    + expected);
+        }
+    }
+
+    /*
+     * Resolves a tap straight from the geometry, the way the face is drawn, with nothing of the
+     * index: the arc stroke widened inwards by its thickness and out to the edge, then the bounds
+     * of the slots, then the center and the slices between the divider lines.
+     */
+    private static int oracle(FaceGeometry geometry, int activeMask, int x, int y) {
+        double dx = x - geometry.centerX;
+        double dy = y - geometry.centerY;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        double angle = Math.toDegrees(Math.atan2(dy, dx));
+        if (angle < 0) {
+            angle += 360;
+        }
+
+        if (distance >= getRingRadius(geometry)) {
+            for (int i = 0; i < SlotIds.RANGED_COUNT; i++) {
+                int slot = SlotIds.RANGED_OFFSET + i;
+                // How far past the start of the arc the tap is, across 0 degrees if need be.
+                double offset = ((angle - geometry.getArcStartAngle(i)) % 360 + 360) % 360;
+                if (isActive(activeMask, slot) && offset < geometry.getArcSweepAngle(i)) {
+                    return slot;
+                }
+            }
+        }
+
+        // The icons of the arcs are drawn over the slices.
+        for (int slot : BOUNDS_ORDER) {
+            Box bounds = geometry.getSlotBounds(slot);
+            if (isActive(activeMask, slot) && x >= bounds.left && x < bounds.right
+                    && y >= bounds.top && y < bounds.bottom) {
+                return slot;
+            }
+        }
+
+        if (distance < geometry.getCenterRadius()) {
+            return isActive(activeMask, SlotIds.CENTER) ? SlotIds.CENTER : -1;
+        }
+        int slice = geometry.getSliceSlot((float) angle);
+        return slice >= 0 && isActive(activeMask, slice) ? slice : -1;
+    }
+
+    private static float getRingRadius(FaceGeometry geometry) {
+        float strokeRadius = (geometry.arcRight - geometry.arcLeft) / 2;
+        return strokeRadius - geometry.arcThickness / 2 - geometry.arcThickness;
+    }
+
+    private static boolean isActive(int activeMask, int slot) {
+        return (activeMask & (1 << slot)) != 0;
+    }
+}
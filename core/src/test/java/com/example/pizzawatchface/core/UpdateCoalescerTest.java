@@ -0,0 +1,95 @@
+package com.example.pizzawatchface.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class UpdateCoalescerTest {
+    private static final long INTERACTIVE_MS = 16;
+    private static final long AMBIENT_MS = 1000;
+
+    private final UpdateCoalescer coalescer = new UpdateCoalescer(INTERACTIVE_MS, AMBIENT_MS);
+
+    @Test
+    public void firstRequestIsDrawnRightAway() {
+        assertEquals(100, coalescer.requestFrame(100));
+    }
+
+    @Test
+    public void requestsWhileAFrameIsPendingAskForNothing() {
+        coalescer.requestFrame(100);
+
+        assertEquals(UpdateCoalescer.NO_FRAME, coalescer.requestFrame(101));
+        assertEquals(UpdateCoalescer.NO_FRAME, coalescer.requestFrame(102));
+    }
+
+    @Test
+    public void requestWithinTheIntervalIsDeferredToItsEnd() {
+        coalescer.onFrameDrawn(100);
+
+        assertEquals(100 + INTERACTIVE_MS, coalescer.requestFrame(105));
+    }
+
+    @Test
+    public void requestAfterTheIntervalIsDrawnRightAway() {
+        coalescer.onFrameDrawn(100);
+
+        assertEquals(200, coalescer.requestFrame(200));
+    }
+
+    @Test
+    public void ambientUsesItsOwnInterval() {
+        coalescer.setAmbient(true);
+        coalescer.onFrameDrawn(100);
+
+        assertEquals(100 + AMBIENT_MS, coalescer.requestFrame(105));
+    }
+
+    @Test
+    public void setMinIntervalChangesOnlyItsMode() {
+        coalescer.setMinInterval(true, 5000);
+        coalescer.onFrameDrawn(100);
+
+        assertEquals(100 + INTERACTIVE_MS, coalescer.requestFrame(105));
+        coalescer.onFrameDrawn(116);
+        coalescer.setAmbient(true);
+        assertEquals(116 + 5000, coalescer.requestFrame(120));
+    }
+
+    @Test
+    public void anyFrameTakesThePendingRequestWithIt() {
+        coalescer.onFrameDrawn(100);
+        coalescer.requestFrame(105);
+
+        // The minute tick, say, drew before the deferred frame.
+        coalescer.onFrameDrawn(110);
+
+        assertEquals(110 + INTERACTIVE_MS, coalescer.requestFrame(111));
+    }
+
+    @Test
+    public void countsUpdatesAgainstTheFramesDrawnForThem() {
+        for (int i = 0; i < 5; i++) {
+            coalescer.onUpdate();
+        }
+        coalescer.requestFrame(100);
+        coalescer.requestFrame(101);
+        coalescer.onFrameDrawn(102);
+        // Frames nobody asked for are not counted.
+        coalescer.onFrameDrawn(200);
+
+        assertEquals(5, coalescer.getUpdates());
+        assertEquals(1, coalescer.getUpdateFrames());
+    }
+
+    @Test
+    public void resetCountersKeepsThePendingFrame() {
+        coalescer.onUpdate();
+        coalescer.requestFrame(100);
+        coalescer.resetCounters();
+
+        assertEquals(UpdateCoalescer.NO_FRAME, coalescer.requestFrame(101));
+        assertEquals(0, coalescer.getUpdates());
+        assertEquals(0, coalescer.getUpdateFrames());
+    }
+}